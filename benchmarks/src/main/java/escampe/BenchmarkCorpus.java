@@ -0,0 +1,29 @@
+package escampe;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Positions the benchmarks run over: the files of one phase directory (opening, middlegame or
+ * endgame) of the corpus, in the format read by SearchBench.load ("% side lisere" header, then
+ * setFromFile rows). The corpus is benchmarks/positions, from the project root, or the directory
+ * of -Descampe.corpus=... (given to the benchmark JVMs with -jvmArgsAppend).
+ */
+final class BenchmarkCorpus {
+    static final String DIRECTORY = System.getProperty("escampe.corpus", "benchmarks/positions");
+
+    private BenchmarkCorpus() {
+    }
+
+    /** the positions of phase, on boards of the given engine ("bitboard" or "reference") */
+    static IEscampeBoard[] load(String phase, String engine) {
+        File[] files = new File(DIRECTORY, phase).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null || files.length == 0) {
+            throw new IllegalStateException("Aucune position dans " + new File(DIRECTORY, phase).getAbsolutePath());
+        }
+        Arrays.sort(files);
+        IEscampeBoard[] boards = new IEscampeBoard[files.length];
+        for (int i = 0; i < files.length; i++) boards[i] = SearchBench.load(files[i].getPath(), engine);
+        return boards;
+    }
+}
@@ -0,0 +1,111 @@
+package escampe;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Board hot paths, per call, on each position of a corpus phase in turn: move generation, move
+ * validation, clone, play (which validates, on a clone: subtract clone), makeMove + unmakeMove
+ * (what the search does), the static evaluation and a full Zobrist hash computation.
+ *
+ * Exemple : java -jar benchmarks/target/benchmarks.jar BoardBenchmark -rf json -rff board.json
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String phase;
+
+    @Param({"bitboard", "reference"})
+    public String board;
+
+    private IEscampeBoard[] positions;
+    // For each position: its side to move and one of its legal moves (the middle one)
+    private int[] sides;
+    private int[] legalMoves;
+    private Searcher[] searchers;
+    private final MoveList moves = new MoveList();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        positions = BenchmarkCorpus.load(phase, board);
+        sides = new int[positions.length];
+        legalMoves = new int[positions.length];
+        searchers = new Searcher[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            sides[i] = positions[i].getSideToMove();
+            Perft.generate(positions[i], sides[i], moves);
+            legalMoves[i] = moves.get(moves.size() / 2);
+            searchers[i] = new Searcher(sides[i], new TranspositionTable(1));
+        }
+    }
+
+    /** index of the position of this call: the positions of the phase in turn */
+    private int position() {
+        int i = next;
+        next = i + 1 == positions.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public int possiblesMoves() {
+        int i = position();
+        positions[i].possiblesMoves(sides[i], moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public boolean isValidMove() {
+        int i = position();
+        return positions[i].isValidMove(legalMoves[i], sides[i]);
+    }
+
+    @Benchmark
+    public IEscampeBoard cloneBoard() {
+        return positions[position()].clone();
+    }
+
+    @Benchmark
+    public IEscampeBoard clonePlay() {
+        int i = position();
+        IEscampeBoard copy = positions[i].clone();
+        copy.play(legalMoves[i], sides[i]);
+        return copy;
+    }
+
+    @Benchmark
+    public long makeUnmakeMove() {
+        int i = position();
+        positions[i].makeMove(legalMoves[i], sides[i]);
+        long hash = positions[i].getHash();
+        positions[i].unmakeMove();
+        return hash;
+    }
+
+    @Benchmark
+    public int evaluate() {
+        int i = position();
+        return searchers[i].evaluate(positions[i], sides[i]);
+    }
+
+    @Benchmark
+    public long computeZobrist() {
+        return Zobrist.compute(positions[position()]);
+    }
+}
@@ -0,0 +1,74 @@
+package escampe;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fixed-depth search, as in a game: iterative deepening up to depth on each position of a corpus
+ * phase in turn, single threaded, with the transposition table, the evaluation cache and the
+ * move ordering history cleared before each call so that every call does the same work.
+ *
+ * Exemple : java -jar benchmarks/target/benchmarks.jar SearchBenchmark -p depth=7 -rf json -rff search.json
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String phase;
+
+    @Param({"bitboard"})
+    public String board;
+
+    @Param({"5"})
+    public int depth;
+
+    private IEscampeBoard[] positions;
+    private TranspositionTable tt;
+    private EvalCache evalCache;
+    // One searcher per side to move, allocated once
+    private Searcher blanc;
+    private Searcher noir;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        positions = BenchmarkCorpus.load(phase, board);
+        tt = new TranspositionTable(4);
+        evalCache = new EvalCache(1);
+        blanc = new Searcher(Couleur.BLANC, tt, evalCache);
+        noir = new Searcher(Couleur.NOIR, tt, evalCache);
+    }
+
+    @Benchmark
+    public int search() {
+        IEscampeBoard position = positions[next];
+        next = (next + 1) % positions.length;
+
+        tt.clear();
+        evalCache.clear();
+        int side = position.getSideToMove();
+        Searcher searcher = side == Couleur.BLANC ? blanc : noir;
+        searcher.clearHistory();
+        MoveList moves = searcher.moves(0);
+        Perft.generate(position, side, moves);
+        searcher.setDeadline(Long.MAX_VALUE);
+        int value = Searcher.NO_VALUE;
+        for (int d = 1; d <= depth; d++) value = searcher.searchIteration(position, moves, d, value);
+        return value ^ moves.get(0);
+    }
+}
@@ -0,0 +1,72 @@
+package escampe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MctsTreeTest {
+    private static final String PLACEMENT_NOIR = "F6/B5/C5/D5/F5/E6";
+    private static final String PLACEMENT_BLANC = "D2/A1/B1/F1/C2/F2";
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("escampe.gameMillis");
+        System.clearProperty("escampe.marginMillis");
+        System.clearProperty("escampe.book");
+        System.clearProperty("escampe.mctsNodes");
+        System.clearProperty("escampe.threads");
+    }
+
+    private static IEscampeBoard placedBoard() {
+        IEscampeBoard board = new BitboardEscampeBoard();
+        board.play(Move.parse(PLACEMENT_NOIR), Couleur.NOIR);
+        board.play(Move.parse(PLACEMENT_BLANC), Couleur.BLANC);
+        return board;
+    }
+
+    @Test
+    void searchWithPastDeadlineReturnsNoneOrLegalMove() throws Exception {
+        IEscampeBoard board = placedBoard();
+        MctsTree tree = new MctsTree(1 << 10);
+        tree.reset(board);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            tree.search(System.currentTimeMillis() - 1000, 2, pool);
+        } finally {
+            pool.shutdown();
+        }
+        int move = tree.bestMove();
+        assertTrue(move == Move.NONE || board.isValidMove(move, board.getSideToMove()),
+                "coup illégal : " + Move.toString(move));
+    }
+
+    @Test
+    void playerWithSpentClockStillPlaysLegalMove() {
+        System.setProperty("escampe.gameMillis", "1");
+        System.setProperty("escampe.marginMillis", "1000");
+        System.setProperty("escampe.book", "none");
+        System.setProperty("escampe.mctsNodes", "1024");
+        System.setProperty("escampe.threads", "2");
+        JoueurMcts player = new JoueurMcts();
+        player.initJoueur(Couleur.BLANC);
+
+        IEscampeBoard arbiter = new BitboardEscampeBoard();
+        arbiter.play(Move.parse(PLACEMENT_NOIR), Couleur.NOIR);
+        player.mouvementEnnemi(PLACEMENT_NOIR);
+        try {
+            // white places its pieces, then plays the first move, both with no time left
+            for (int i = 0; i < 2; i++) {
+                int move = Move.parse(player.choixMouvement());
+                assertTrue(arbiter.isValidMove(move, Couleur.BLANC), "coup illégal : " + Move.toString(move));
+                arbiter.play(move, Couleur.BLANC);
+            }
+        } finally {
+            player.declareLeVainqueur(Couleur.NOIR);
+        }
+        assertEquals(Couleur.NOIR, arbiter.getSideToMove());
+    }
+}
@@ -0,0 +1,452 @@
+package escampe;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plateau d'Escampe représenté par des masques 64 bits : la case (ligne, colonne) correspond
+ * au bit ligne*6 + colonne. Mêmes règles que {@link EscampeBoard}, qui reste
+ * l'implémentation de référence.
+ */
+public class BitboardEscampeBoard implements IEscampeBoard {
+    static final long FULL = (1L << 36) - 1;
+    // Les deux premières lignes du plateau (1 et 2), et les deux dernières (5 et 6)
+    static final long TOP_ROWS = (1L << 12) - 1;
+    static final long BOTTOM_ROWS = TOP_ROWS << 24;
+
+    private static final int[][] LISERES = {
+            {1, 2, 2, 3, 1, 2},
+            {3, 1, 3, 1, 3, 2},
+            {2, 3, 1, 2, 1, 3},
+            {2, 1, 3, 2, 3, 1},
+            {1, 3, 1, 3, 1, 2},
+            {3, 2, 2, 1, 3, 2}
+    };
+
+    // Un masque par valeur de liseré (index 1, 2, 3)
+    static final long[] LISERE_MASKS = new long[4];
+
+    static {
+        for (int sq = 0; sq < 36; sq++) {
+            LISERE_MASKS[LISERES[sq / 6][sq % 6]] |= 1L << sq;
+        }
+    }
+
+    // Index 0 = noir, 1 = blanc (Couleur.index)
+    private final long[] paladins = new long[2];
+    private final long[] unicorns = new long[2];
+    private long occupied;
+    private int lastMoveLisere = -1;
+    private int sideToMove = Couleur.NOIR;
+    private long hash = Zobrist.lisere(-1);
+
+    // Pile d'annulation de makeMove, une entrée par coup joué
+    private final int[] undoMove = new int[MAX_PLY];
+    private final boolean[] undoCaptured = new boolean[MAX_PLY];
+    private final int[] undoLisere = new int[MAX_PLY];
+    private final int[] undoSide = new int[MAX_PLY];
+    private final long[] undoHash = new long[MAX_PLY];
+    private int undoTop = 0;
+
+    public BitboardEscampeBoard() {
+    }
+
+    @Override
+    public int[][] getLiseres() {
+        return LISERES;
+    }
+
+    static int lisere(int sq) {
+        return LISERES[sq / 6][sq % 6];
+    }
+
+    @Override
+    public char getBoardCell(int row, int col) {
+        long bit = 1L << (row * 6 + col);
+        if ((occupied & bit) == 0) return '-';
+        if ((paladins[0] & bit) != 0) return 'n';
+        if ((paladins[1] & bit) != 0) return 'b';
+        if ((unicorns[0] & bit) != 0) return 'N';
+        return 'B';
+    }
+
+    @Override
+    public int getLastMoveLisere() {
+        return lastMoveLisere;
+    }
+
+    @Override
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public void setSideToMove(int player) {
+        hash ^= Zobrist.side(sideToMove) ^ Zobrist.side(player);
+        sideToMove = player;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public void setLastMoveLisere(int lisere) {
+        hash ^= Zobrist.lisere(lastMoveLisere) ^ Zobrist.lisere(lisere);
+        lastMoveLisere = lisere;
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public long getPaladins(int player) {
+        return paladins[Couleur.index(player)];
+    }
+
+    public long getUnicorn(int player) {
+        return unicorns[Couleur.index(player)];
+    }
+
+    @Override
+    public int getUnicornSquare(int player) {
+        long unicorn = unicorns[Couleur.index(player)];
+        return unicorn == 0 ? -1 : Long.numberOfTrailingZeros(unicorn);
+    }
+
+    @Override
+    public boolean isAttacked(int square, int bySide, int lisereConstraint) {
+        int s = Couleur.index(bySide);
+        if ((endMask(true, s) & (1L << square)) == 0) return false;
+
+        for (int k = 1; k <= PathTables.MAX_STEPS; k++) {
+            if (lisereConstraint != -1 && k != lisereConstraint) continue;
+            long attackers = paladins[s] & LISERE_MASKS[k];
+            if (attackers != 0 && PathTables.reachedFrom(square, k, attackers, occupied)) return true;
+        }
+        return false;
+    }
+
+    /** pièces que le joueur a le droit de bouger compte tenu du liseré imposé */
+    public long movablePieces(int player) {
+        int s = Couleur.index(player);
+        long mine = paladins[s] | unicorns[s];
+        return lastMoveLisere == -1 ? mine : mine & LISERE_MASKS[lastMoveLisere];
+    }
+
+    // Place un caractère du plateau sur la case sq, en écrasant ce qui s'y trouvait
+    private void setCell(int sq, char c) {
+        long bit = 1L << sq;
+        hash ^= Zobrist.piece(getBoardCell(sq / 6, sq % 6), sq) ^ Zobrist.piece(c, sq);
+        paladins[0] &= ~bit;
+        paladins[1] &= ~bit;
+        unicorns[0] &= ~bit;
+        unicorns[1] &= ~bit;
+        occupied &= ~bit;
+        switch (c) {
+            case 'n': paladins[0] |= bit; break;
+            case 'b': paladins[1] |= bit; break;
+            case 'N': unicorns[0] |= bit; break;
+            case 'B': unicorns[1] |= bit; break;
+            default: return;
+        }
+        occupied |= bit;
+    }
+
+    @Override
+    public void setFromFile(String fileName) {
+        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            int row = 0;
+            while ((line = br.readLine()) != null && row < 6) {
+                if (line.startsWith("%")) continue;
+                String clean = line.replaceAll("[^A-Za-z-]", "");
+                if (clean.length() >= 6) {
+                    for (int col = 0; col < 6; col++) setCell(row * 6 + col, clean.charAt(col));
+                    row++;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (Zobrist.DEBUG) Zobrist.check(this);
+    }
+
+    @Override
+    public void saveToFile(String fileName) {
+        try (PrintWriter pw = new PrintWriter(fileName)) {
+            for (int i = 0; i < 6; i++) {
+                pw.printf("%02d %s %02d%n", i+1, rowString(i), i+1);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private String rowString(int row) {
+        char[] line = new char[6];
+        for (int col = 0; col < 6; col++) line[col] = getBoardCell(row, col);
+        return new String(line);
+    }
+
+    @Override
+    public boolean isValidMove(String move, String player) {
+        return isValidMove(Move.parse(move), Couleur.fromString(player));
+    }
+
+    @Override
+    public boolean isValidMove(int move, int player) {
+        if (Move.isPass(move)) return !hasMoves(player);
+        if (Move.isPlacement(move)) return validateInitialPlacement(move, player);
+        if (!Move.isRegular(move)) return false;
+        return isValidRegularMove(Move.from(move), Move.to(move), Couleur.index(player));
+    }
+
+    private boolean isValidRegularMove(int start, int end, int s) {
+        long startBit = 1L << start;
+        boolean paladin = (paladins[s] & startBit) != 0;
+        if (!paladin && (unicorns[s] & startBit) == 0) return false;
+
+        int allowedSteps = lisere(start);
+        if (lastMoveLisere != -1 && allowedSteps != lastMoveLisere) return false;
+        if ((endMask(paladin, s) & (1L << end)) == 0) return false;
+
+        return PathTables.hasPath(start, end, allowedSteps, occupied);
+    }
+
+    @Override
+    public boolean isNextPosValid(char nextPos) {
+        return nextPos == '-';
+    }
+
+    // Cases d'arrivée autorisées : vides, plus la licorne adverse pour un paladin
+    private long endMask(boolean paladin, int s) {
+        return paladin ? ~occupied | unicorns[1 - s] : ~occupied;
+    }
+
+    // Cases d'arrivée légales de la pièce en from
+    private long destinations(int from, int s) {
+        boolean paladin = (paladins[s] & (1L << from)) != 0;
+        return PathTables.destinations(from, lisere(from), occupied) & endMask(paladin, s);
+    }
+
+    private boolean hasMoves(int player) {
+        int s = Couleur.index(player);
+        long pieces = movablePieces(player);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (destinations(from, s) != 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<String> possiblesMoves(String player) {
+        MoveList moves = new MoveList();
+        possiblesMoves(Couleur.fromString(player), moves);
+        List<String> result = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) result.add(Move.toString(moves.get(i)));
+        return result;
+    }
+
+    @Override
+    public void possiblesMoves(int player, MoveList moves) {
+        moves.clear();
+        int s = Couleur.index(player);
+        long pieces = movablePieces(player);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long dests = destinations(from, s);
+            while (dests != 0) {
+                moves.add(Move.regular(from, Long.numberOfTrailingZeros(dests)));
+                dests &= dests - 1;
+            }
+        }
+    }
+
+    @Override
+    public int countMoves(int player, int toLisere) {
+        int s = Couleur.index(player);
+        long arrivals = toLisere == -1 ? -1L : LISERE_MASKS[toLisere];
+        long pieces = movablePieces(player);
+        int count = 0;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            count += Long.bitCount(destinations(from, s) & arrivals);
+        }
+        return count;
+    }
+
+    @Override
+    public void play(String move, String player) {
+        play(Move.parse(move), Couleur.fromString(player));
+    }
+
+    @Override
+    public void play(int move, int player) {
+        if (!isValidMove(move, player)) throw new IllegalArgumentException("Coup invalide");
+        apply(move, player);
+        if (Zobrist.DEBUG) Zobrist.check(this);
+    }
+
+    // Joue un coup supposé valide et renvoie vrai s'il prend une licorne
+    private boolean apply(int move, int player) {
+        if (Move.isPass(move)) {
+            setLastMoveLisere(-1);
+            setSideToMove(Couleur.adversaire(player));
+            return false;
+        }
+
+        int s = Couleur.index(player);
+        if (Move.isPlacement(move)) {
+            int unicornSq = Move.placementUnicorn(move);
+            long placed = Move.placementPaladins(move);
+            long unicorn = 1L << unicornSq;
+            paladins[s] |= placed;
+            unicorns[s] |= unicorn;
+            occupied |= placed | unicorn;
+
+            hash ^= Zobrist.UNICORN[s][unicornSq];
+            while (placed != 0) {
+                hash ^= Zobrist.PALADIN[s][Long.numberOfTrailingZeros(placed)];
+                placed &= placed - 1;
+            }
+            // Blanc joue le premier coup après les deux placements
+            setSideToMove(Couleur.BLANC);
+            return false;
+        }
+
+        int from = Move.from(move), to = Move.to(move);
+        long fromBit = 1L << from, toBit = 1L << to, both = fromBit | toBit;
+        boolean captured = (unicorns[1 - s] & toBit) != 0;
+        if ((paladins[s] & fromBit) != 0) {
+            paladins[s] ^= both;
+            hash ^= Zobrist.PALADIN[s][from] ^ Zobrist.PALADIN[s][to];
+            if (captured) {
+                unicorns[1 - s] &= ~toBit;
+                hash ^= Zobrist.UNICORN[1 - s][to];
+            }
+        } else {
+            unicorns[s] ^= both;
+            hash ^= Zobrist.UNICORN[s][from] ^ Zobrist.UNICORN[s][to];
+        }
+        occupied = (occupied & ~fromBit) | toBit;
+        setLastMoveLisere(lisere(to));
+        setSideToMove(Couleur.adversaire(player));
+        return captured;
+    }
+
+    @Override
+    public void makeMove(int move, int player) {
+        int ply = undoTop++;
+        undoMove[ply] = move;
+        undoLisere[ply] = lastMoveLisere;
+        undoSide[ply] = sideToMove;
+        undoHash[ply] = hash;
+        undoCaptured[ply] = apply(move, player);
+        if (Zobrist.DEBUG) Zobrist.check(this);
+    }
+
+    @Override
+    public void unmakeMove() {
+        int ply = --undoTop;
+        int move = undoMove[ply];
+        lastMoveLisere = undoLisere[ply];
+        sideToMove = undoSide[ply];
+        hash = undoHash[ply];
+
+        if (Move.isPlacement(move)) {
+            long kept = ~Move.placementSquares(move);
+            occupied &= kept;
+            paladins[0] &= kept;
+            paladins[1] &= kept;
+            unicorns[0] &= kept;
+            unicorns[1] &= kept;
+        } else if (!Move.isPass(move)) {
+            int from = Move.from(move), to = Move.to(move);
+            long toBit = 1L << to, both = (1L << from) | toBit;
+            int s = ((paladins[0] | unicorns[0]) & toBit) != 0 ? 0 : 1;
+            if ((paladins[s] & toBit) != 0) {
+                paladins[s] ^= both;
+            } else {
+                unicorns[s] ^= both;
+            }
+            occupied ^= both;
+            if (undoCaptured[ply]) {
+                unicorns[1 - s] |= toBit;
+                occupied |= toBit;
+            }
+        }
+        if (Zobrist.DEBUG) Zobrist.check(this);
+    }
+
+    @Override
+    public boolean gameOver() {
+        return unicorns[0] == 0 || unicorns[1] == 0;
+    }
+
+    // Valide le placement initial : le coup codé tient déjà sur une bande de deux lignes
+    private boolean validateInitialPlacement(int move, int player) {
+        long placed = Move.placementSquares(move);
+        if ((occupied & placed) != 0) return false;
+        if (player == Couleur.NOIR) return true;
+
+        long allowed = checkInitSide().equals("Top") ? BOTTOM_ROWS : TOP_ROWS;
+        return (placed & ~allowed) == 0;
+    }
+
+    @Override
+    public BitboardEscampeBoard clone() {
+        BitboardEscampeBoard copy = new BitboardEscampeBoard();
+        System.arraycopy(this.paladins, 0, copy.paladins, 0, 2);
+        System.arraycopy(this.unicorns, 0, copy.unicorns, 0, 2);
+        copy.occupied = this.occupied;
+        copy.lastMoveLisere = this.lastMoveLisere;
+        copy.sideToMove = this.sideToMove;
+        copy.hash = this.hash;
+        return copy;
+    }
+
+    @Override
+    public String boardString() {
+        String header = "   A B C D E F ";
+        String space = "   ";
+        StringBuilder text = new StringBuilder();
+        text.append(header).append(space).append("  ").append(header).append('\n');
+        for (int i = 0; i < 6; i++) {
+            StringBuilder line = new StringBuilder();
+            line.append("0" + (i+1) + " ");
+            for (int j = 0; j < 6; j++) {
+                line.append(getBoardCell(i, j)).append(" ");
+            }
+            line.append("0" + (i+1)).append(space);
+
+            line.append("0" + (i+1) + " ");
+            for (int num : LISERES[i]) {
+                line.append(num).append(" ");
+            }
+            line.append("0" + (i+1));
+            text.append(line).append('\n');
+        }
+        text.append(header).append(space).append("  ").append(header).append('\n');
+        return text.toString();
+    }
+
+    @Override
+    public void printBoard() {
+        System.out.print(boardString());
+    }
+
+    @Override
+    public String checkInitSide() {
+        return ((paladins[0] | unicorns[0]) & TOP_ROWS) != 0 ? "Top" : "Bottom";
+    }
+}
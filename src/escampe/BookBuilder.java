@@ -0,0 +1,217 @@
+package escampe;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Builds the opening book read by {@link OpeningBook}, offline and with far more time per
+ * position than a game allows:
+ * 1. black's placement: candidates (the preferred placements of the engine, then random legal
+ *    ones) are each scored by white's best reply, searched like in a game; the best are kept,
+ *    weighted by rank;
+ * 2. white's placement: the best reply found for each of black's candidates;
+ * 3. first moves: self-play games starting from the book placements, searched to a fixed depth;
+ *    the moves of the first plies are stored, with more weight when their side won the game.
+ *
+ * Exemple : java -cp bin escampe.BookBuilder book.bin --candidates=16 --millis=20000 --games=20 --plies=8
+ */
+public class BookBuilder {
+    // Weight of a self-play move whose side won the game, of the other moves, and number of black
+    // placements kept (weighted KEPT_PLACEMENTS for the best, down to 1)
+    private static final int WIN_WEIGHT = 3;
+    private static final int OTHER_WEIGHT = 1;
+    private static final int KEPT_PLACEMENTS = 4;
+    // Self-play games are stopped after this many plies, and searched this much shallower after
+    // the plies stored in the book
+    private static final int MAX_GAME_PLIES = 200;
+    private static final int PLAY_DEPTH_REDUCTION = 2;
+
+    private final String engine;
+    private final int depth;
+    private final long millis;
+    private final int threads;
+    private final Random rand;
+    private final TranspositionTable tt = new TranspositionTable(Integer.getInteger("escampe.ttMegabytes", 64));
+    // position key -> move -> {weight, score}; sorted by key, the order of the book file
+    private final Map<Long, Map<Integer, int[]>> entries = new TreeMap<>();
+
+    BookBuilder(String engine, int depth, long millis, int threads, long seed) {
+        this.engine = engine;
+        this.depth = depth;
+        this.millis = millis;
+        this.threads = threads;
+        this.rand = new Random(seed);
+    }
+
+    /** steps 1 and 2: black's placements scored by white's best reply, which is stored too */
+    void buildPlacements(int candidateCount) {
+        IEscampeBoard empty = JoueurSuperFort.newBoard(engine);
+        MoveList candidates = candidates(empty, Couleur.NOIR, candidateCount);
+        PlacementSearch blackView = new PlacementSearch(Couleur.NOIR, tt, depth, threads);
+
+        List<int[]> scored = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            IEscampeBoard board = empty.clone();
+            board.play(candidates.get(i), Couleur.NOIR);
+            tt.newSearch();
+            MoveList replies = candidates(board, Couleur.BLANC, Integer.MAX_VALUE);
+            int reply = blackView.search(board, Couleur.BLANC, replies, System.currentTimeMillis() + millis);
+            if (reply == Move.NONE) continue;
+
+            int score = blackView.bestScore();
+            add(board.getHash(), reply, OTHER_WEIGHT, -score);
+            scored.add(new int[] {candidates.get(i), score});
+            System.out.println("Placement noir " + Move.toString(candidates.get(i)) + " : " + score + ", réponse "
+                    + Move.toString(reply) + " (" + blackView.searched() + "/" + replies.size() + " réponses)");
+        }
+
+        scored.sort((a, b) -> Integer.compare(b[1], a[1]));
+        for (int rank = 0; rank < Math.min(KEPT_PLACEMENTS, scored.size()); rank++) {
+            add(empty.getHash(), scored.get(rank)[0], KEPT_PLACEMENTS - rank, scored.get(rank)[1]);
+        }
+    }
+
+    /** step 3: one self-play game from the book placements, its first plies stored */
+    void playGame(int plies) {
+        IEscampeBoard board = JoueurSuperFort.newBoard(engine);
+        int black = pick(board.getHash());
+        if (black == Move.NONE) return;
+        board.play(black, Couleur.NOIR);
+        int white = pick(board.getHash());
+        if (white == Move.NONE) return;
+        board.play(white, Couleur.BLANC);
+
+        Searcher[] searchers = {new Searcher(Couleur.NOIR, tt), new Searcher(Couleur.BLANC, tt)};
+        List<long[]> played = new ArrayList<>();
+        int side = Couleur.BLANC;
+        for (int ply = 0; ply < MAX_GAME_PLIES && !board.gameOver(); ply++) {
+            Searcher searcher = searchers[Couleur.index(side)];
+            MoveList moves = searcher.moves(0);
+            Perft.generate(board, side, moves);
+            shuffle(moves);
+
+            tt.newSearch();
+            searcher.setDeadline(Long.MAX_VALUE);
+            int searchDepth = ply < plies ? depth : Math.max(1, depth - PLAY_DEPTH_REDUCTION);
+            int value = Searcher.NO_VALUE;
+            for (int d = 1; d <= searchDepth; d++) value = searcher.searchIteration(board, moves, d, value);
+
+            int move = moves.get(0);
+            if (ply < plies && Move.isRegular(move)) played.add(new long[] {board.getHash(), move, side, value});
+            board.makeMove(move, side);
+            side = -side;
+        }
+
+        // the side to move after the capture is the loser
+        int winner = board.gameOver() ? -board.getSideToMove() : 0;
+        for (long[] p : played) {
+            add(p[0], (int) p[1], p[2] == winner ? WIN_WEIGHT : OTHER_WEIGHT, (int) p[3]);
+        }
+        System.out.println("Partie : " + played.size() + " coups retenus, vainqueur "
+                + (winner == 0 ? "aucun" : Couleur.toString(winner)));
+    }
+
+    void write(String fileName) throws IOException {
+        int count = 0;
+        for (Map<Integer, int[]> moves : entries.values()) count += moves.size();
+        long[] keys = new long[count];
+        int[] moves = new int[count];
+        int[] weights = new int[count];
+        int[] scores = new int[count];
+        int i = 0;
+        for (Map.Entry<Long, Map<Integer, int[]>> position : entries.entrySet()) {
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                keys[i] = position.getKey();
+                moves[i] = move.getKey();
+                weights[i] = move.getValue()[0];
+                scores[i] = move.getValue()[1];
+                i++;
+            }
+        }
+        OpeningBook.write(fileName, keys, moves, weights, scores, count);
+        System.out.println(count + " entrées pour " + entries.size() + " positions écrites dans " + fileName);
+    }
+
+    private void add(long key, int move, int weight, int score) {
+        int[] entry = entries.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(move, m -> new int[2]);
+        entry[0] += weight;
+        entry[1] = score;
+    }
+
+    /** a move stored so far for key, drawn by weight, or Move.NONE */
+    private int pick(long key) {
+        Map<Integer, int[]> moves = entries.get(key);
+        if (moves == null) return Move.NONE;
+        int total = 0;
+        for (int[] entry : moves.values()) total += entry[0];
+        int draw = rand.nextInt(total);
+        for (Map.Entry<Integer, int[]> move : moves.entrySet()) {
+            draw -= move.getValue()[0];
+            if (draw < 0) return move.getKey();
+        }
+        return Move.NONE;
+    }
+
+    /** the preferred placements of the engine that are legal, then random legal ones, count at most */
+    private MoveList candidates(IEscampeBoard board, int player, int count) {
+        MoveList legal = PlacementSearch.legalPlacements(board, player);
+        shuffle(legal);
+        MoveList candidates = new MoveList(legal.size());
+        for (String preferred : JoueurSuperFort.preferredPlacements) {
+            int move = Move.parse(preferred);
+            if (legal.contains(move) && candidates.size() < count) candidates.add(move);
+        }
+        for (int i = 0; i < legal.size() && candidates.size() < count; i++) {
+            if (!candidates.contains(legal.get(i))) candidates.add(legal.get(i));
+        }
+        return candidates;
+    }
+
+    private void shuffle(MoveList moves) {
+        for (int i = moves.size() - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = moves.get(i);
+            moves.set(i, moves.get(j));
+            moves.set(j, tmp);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("BookBuilder Usage: FichierLivre [--candidates=16] [--millis=20000] [--depth=5]"
+                    + " [--games=20] [--plies=8] [--seed=1] [--board=bitboard|reference]");
+            System.exit(1);
+        }
+
+        int candidates = 16;
+        long millis = 20000;
+        int depth = 5;
+        int games = 20;
+        int plies = 8;
+        long seed = 1;
+        String engine = "bitboard";
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--candidates=")) candidates = Integer.parseInt(value);
+            else if (arg.startsWith("--millis=")) millis = Long.parseLong(value);
+            else if (arg.startsWith("--depth=")) depth = Integer.parseInt(value);
+            else if (arg.startsWith("--games=")) games = Integer.parseInt(value);
+            else if (arg.startsWith("--plies=")) plies = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else if (arg.startsWith("--board=")) engine = value;
+            else throw new IllegalArgumentException("Option inconnue : " + arg);
+        }
+
+        int threads = Integer.getInteger("escampe.threads", Runtime.getRuntime().availableProcessors());
+        BookBuilder builder = new BookBuilder(engine, depth, millis, threads, seed);
+        builder.buildPlacements(candidates);
+        for (int g = 0; g < games; g++) builder.playGame(plies);
+        builder.write(args[0]);
+    }
+}
@@ -0,0 +1,306 @@
+package escampe;
+
+import java.util.Random;
+
+/**
+ * Depth-first proof-number search (df-pn) of a forced unicorn capture: does the side to move
+ * (the attacker) take the enemy unicorn within a given number of plies, whatever the defender
+ * plays? The defender wins by surviving that many plies, or by taking the attacker's unicorn.
+ *
+ * Each node has a proof number phi and a disproof number delta, both for its side to move: the
+ * number of leaves still to prove (disprove) to show that this side reaches its goal. The search
+ * always expands the child that is cheapest to settle, with thresholds telling it when to come
+ * back up, and keeps its numbers in its own bounded hash table. Positions are keyed with the
+ * plies left and the attacker, since the same board can be won in 5 plies and not in 3.
+ *
+ * Exemple : java -cp bin escampe.CaptureSolver plateau.txt blanc -1 7
+ */
+class CaptureSolver {
+    static final int PROVEN = 1;
+    static final int DISPROVEN = -1;
+    static final int UNKNOWN = 0;
+
+    private static final int INFINITE = 1 << 30;
+    private static final long[] PLIES_KEYS = new long[IEscampeBoard.MAX_PLY];
+    private static final long ATTACKER_KEY;
+
+    static {
+        Random rnd = new Random(654321);
+        for (int i = 0; i < PLIES_KEYS.length; i++) PLIES_KEYS[i] = rnd.nextLong();
+        ATTACKER_KEY = rnd.nextLong();
+    }
+
+    // Table of buckets of 2 slots: key, phi and delta of each slot; 0 is an empty key
+    private final long[] keys;
+    private final int[] phis;
+    private final int[] deltas;
+    private final int mask;
+
+    private final MoveList[] moveStack = new MoveList[IEscampeBoard.MAX_PLY];
+    private final int[][] childPhis = new int[IEscampeBoard.MAX_PLY][MoveList.CAPACITY];
+    private final int[][] childDeltas = new int[IEscampeBoard.MAX_PLY][MoveList.CAPACITY];
+
+    private int attacker;
+    private long nodes;
+    private long maxNodes;
+    // System.currentTimeMillis() past which the search gives up, checked every 1024 nodes
+    private long deadline;
+    private boolean stopped;
+    private int bestMove;
+
+    /** @param megabytes size of the table, rounded down to a power of two number of buckets */
+    CaptureSolver(int megabytes) {
+        long slots = Math.max(1, (long) megabytes * 1024 * 1024 / 16);
+        int log2Slots = Math.min(63 - Long.numberOfLeadingZeros(slots), 26);
+        keys = new long[1 << log2Slots];
+        phis = new int[1 << log2Slots];
+        deltas = new int[1 << log2Slots];
+        mask = (1 << log2Slots) - 2;
+        for (int i = 0; i < moveStack.length; i++) moveStack[i] = new MoveList();
+    }
+
+    /** solve with no deadline */
+    int solve(IEscampeBoard root, int plies, long maxNodes) {
+        return solve(root, plies, maxNodes, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param plies plies the side to move has to take the enemy unicorn, its capture included
+     * @param maxNodes nodes expanded before giving up
+     * @param deadline System.currentTimeMillis() after which the search gives up
+     * @return PROVEN, DISPROVEN, or UNKNOWN when maxNodes or the deadline was reached
+     */
+    int solve(IEscampeBoard root, int plies, long maxNodes, long deadline) {
+        IEscampeBoard board = root.clone();
+        attacker = board.getSideToMove();
+        this.maxNodes = maxNodes;
+        this.deadline = deadline;
+        stopped = false;
+        nodes = 0;
+        bestMove = Move.NONE;
+        plies = Math.min(plies, IEscampeBoard.MAX_PLY - 1);
+
+        mid(board, plies, 0, INFINITE, INFINITE);
+        int slot = find(key(board, plies));
+        if (slot < 0) return UNKNOWN;
+        if (phis[slot] == 0) {
+            // recorded by mid(), unless the root was settled without expanding it
+            if (bestMove == Move.NONE) bestMove = provingMove(board, plies);
+            // the proof of the move was evicted from the table: no move to play, nothing proven
+            return bestMove == Move.NONE ? UNKNOWN : PROVEN;
+        }
+        return deltas[slot] == 0 ? DISPROVEN : UNKNOWN;
+    }
+
+    /** after solve() returned PROVEN, the first move of the capture (never Move.NONE) */
+    int bestMove() {
+        return bestMove;
+    }
+
+    /** nodes expanded by the last solve() */
+    long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Removes from moves (side to move's moves on root) those after which the opponent has a
+     * proven capture within plies - 1 plies, unless that would remove them all. Past deadline,
+     * the moves not checked yet are kept.
+     * @return the number of moves removed
+     */
+    int removeLosingMoves(IEscampeBoard root, MoveList moves, int plies, long maxNodesPerMove, long deadline) {
+        IEscampeBoard board = root.clone();
+        int side = board.getSideToMove();
+        MoveList kept = new MoveList();
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i), side);
+            boolean losing = !board.gameOver() && System.currentTimeMillis() < deadline
+                    && solve(board, plies - 1, maxNodesPerMove, deadline) == PROVEN;
+            board.unmakeMove();
+            if (!losing) kept.add(moves.get(i));
+        }
+        int removed = moves.size() - kept.size();
+        if (removed == 0 || kept.isEmpty()) return 0;
+        moves.clear();
+        for (int i = 0; i < kept.size(); i++) moves.add(kept.get(i));
+        return removed;
+    }
+
+    /**
+     * Whether a position deserves the solver: a unicorn is attacked (whatever the lisere), or
+     * the side to move has few moves left, the lisere rule then leaving little room to defend.
+     */
+    static boolean looksTactical(IEscampeBoard board, MoveList moves, int fewMoves) {
+        for (int player = -1; player <= 1; player += 2) {
+            int unicorn = board.getUnicornSquare(player);
+            if (unicorn >= 0 && board.isAttacked(unicorn, -player, -1)) return true;
+        }
+        return moves.size() <= fewMoves;
+    }
+
+    /**
+     * Expands board until its phi reaches thPhi or its delta reaches thDelta (or the node budget
+     * or the time runs out), then stores its numbers.
+     */
+    private void mid(IEscampeBoard board, int plies, int ply, int thPhi, int thDelta) {
+        if ((++nodes & 1023) == 0 && System.currentTimeMillis() >= deadline) stopped = true;
+        long key = key(board, plies);
+        int outcome = outcome(board, plies);
+        if (outcome != 0) {
+            store(key, outcome > 0 ? 0 : INFINITE, outcome > 0 ? INFINITE : 0);
+            return;
+        }
+
+        int side = board.getSideToMove();
+        MoveList moves = moveStack[ply];
+        Perft.generate(board, side, moves);
+        int[] cPhi = childPhis[ply];
+        int[] cDelta = childDeltas[ply];
+        while (true) {
+            // phi is the smallest child delta, delta the sum of the child phis
+            int phi = INFINITE;
+            int delta = 0;
+            int best = 0;
+            int secondDelta = INFINITE;
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i), side);
+                lookup(board, plies - 1, cPhi, cDelta, i);
+                board.unmakeMove();
+                if (cDelta[i] < phi) {
+                    secondDelta = phi;
+                    phi = cDelta[i];
+                    best = i;
+                } else if (cDelta[i] < secondDelta) {
+                    secondDelta = cDelta[i];
+                }
+                delta = (int) Math.min((long) delta + cPhi[i], INFINITE);
+            }
+
+            if (phi >= thPhi || delta >= thDelta || nodes >= maxNodes || stopped) {
+                // the root's proving move, kept here as later stores may evict the child's numbers
+                if (ply == 0 && phi == 0) bestMove = moves.get(best);
+                store(key, phi, delta);
+                return;
+            }
+            int childThPhi = thDelta - delta + cPhi[best];
+            int childThDelta = Math.min(thPhi, secondDelta + 1);
+            board.makeMove(moves.get(best), side);
+            mid(board, plies - 1, ply + 1, childThPhi, childThDelta);
+            board.unmakeMove();
+        }
+    }
+
+    /**
+     * Numbers of a child into phi[i] and delta[i]: from the table, from its outcome if it is
+     * settled without search, else 1 and 1.
+     */
+    private void lookup(IEscampeBoard board, int plies, int[] phi, int[] delta, int i) {
+        long key = key(board, plies);
+        int slot = find(key);
+        if (slot >= 0) {
+            phi[i] = phis[slot];
+            delta[i] = deltas[slot];
+            return;
+        }
+        int outcome = outcome(board, plies);
+        phi[i] = outcome > 0 ? 0 : outcome < 0 ? INFINITE : 1;
+        delta[i] = outcome < 0 ? 0 : outcome > 0 ? INFINITE : 1;
+        if (outcome != 0) store(key, phi[i], delta[i]);
+    }
+
+    /** +1 if the side to move has reached its goal, -1 if it has failed, 0 if still open */
+    private int outcome(IEscampeBoard board, int plies) {
+        int side = board.getSideToMove();
+        if (board.getUnicornSquare(side) < 0) return -1;
+        if (plies == 0) return side == attacker ? -1 : 1;
+        int enemyUnicorn = board.getUnicornSquare(-side);
+        if (enemyUnicorn < 0 || board.isAttacked(enemyUnicorn, side, board.getLastMoveLisere())) return 1;
+        return 0;
+    }
+
+    /** a move of board after which the defender is proven lost */
+    private int provingMove(IEscampeBoard board, int plies) {
+        int side = board.getSideToMove();
+        MoveList moves = moveStack[0];
+        Perft.generate(board, side, moves);
+        int[] phi = childPhis[0];
+        int[] delta = childDeltas[0];
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i), side);
+            lookup(board, plies - 1, phi, delta, i);
+            board.unmakeMove();
+            if (delta[i] == 0) return moves.get(i);
+        }
+        return Move.NONE;
+    }
+
+    private long key(IEscampeBoard board, int plies) {
+        long key = board.getHash() ^ PLIES_KEYS[plies] ^ (attacker == Couleur.NOIR ? ATTACKER_KEY : 0);
+        return key == 0 ? 1 : key;
+    }
+
+    /** first slot of the bucket of key */
+    private int bucket(long key) {
+        return (int) (key ^ key >>> 32) & mask;
+    }
+
+    /** slot holding key, or -1 */
+    private int find(long key) {
+        int slot = bucket(key);
+        if (keys[slot] == key) return slot;
+        return keys[slot + 1] == key ? slot + 1 : -1;
+    }
+
+    // Same key, else an empty slot, else one still open rather than settled (proven or disproven).
+    // A store always succeeds: a node whose numbers were lost would be expanded again and again
+    private void store(long key, int phi, int delta) {
+        int slot = find(key);
+        if (slot < 0) {
+            slot = bucket(key);
+            if (keys[slot] != 0 && (keys[slot + 1] == 0 || phis[slot] == 0 || deltas[slot] == 0)) slot++;
+        }
+        keys[slot] = key;
+        phis[slot] = phi;
+        deltas[slot] = delta;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("CaptureSolver Usage: FichierPlateau noir|blanc Liseré(-1 si libre) DemiCoups"
+                    + " [noeuds, défaut 1000000] [--board=bitboard|reference]");
+            System.exit(1);
+        }
+
+        int side = Couleur.fromString(args[1]);
+        int lisere = Integer.parseInt(args[2]);
+        int plies = Integer.parseInt(args[3]);
+        long maxNodes = 1000000;
+        String engine = "bitboard";
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].startsWith("--board=")) engine = args[i].substring(8);
+            else maxNodes = Long.parseLong(args[i]);
+        }
+
+        IEscampeBoard board = JoueurSuperFort.newBoard(engine);
+        board.setFromFile(args[0]);
+        board.setSideToMove(side);
+        board.setLastMoveLisere(lisere);
+        board.printBoard();
+
+        CaptureSolver solver = new CaptureSolver(Integer.getInteger("escampe.solverMegabytes", 16));
+        long start = System.currentTimeMillis();
+        int result = solver.solve(board, plies, maxNodes);
+        long elapsed = System.currentTimeMillis() - start;
+
+        String player = Couleur.toString(side);
+        if (result == PROVEN) {
+            System.out.println(player + " prend la licorne en " + plies + " demi-coups au plus, en jouant "
+                    + Move.toString(solver.bestMove()));
+        } else if (result == DISPROVEN) {
+            System.out.println(player + " n'a pas de prise forcée de la licorne en " + plies + " demi-coups");
+        } else {
+            System.out.println("Indéterminé après " + maxNodes + " noeuds");
+        }
+        System.out.println(solver.nodes() + " noeuds en " + elapsed + " ms");
+    }
+}
@@ -0,0 +1,34 @@
+package escampe;
+
+/**
+ * Joueurs représentés par les constantes entières de {@link IJoueur} (BLANC = -1, NOIR = 1).
+ * Les chaînes "noir" / "blanc" ne servent qu'aux échanges avec l'arbitre.
+ */
+final class Couleur {
+    static final int BLANC = IJoueur.BLANC;
+    static final int NOIR = IJoueur.NOIR;
+
+    private Couleur() {
+    }
+
+    static int adversaire(int couleur) {
+        return -couleur;
+    }
+
+    /** index dans les tableaux indexés par joueur : 0 pour noir, 1 pour blanc */
+    static int index(int couleur) {
+        return (1 - couleur) >> 1;
+    }
+
+    static int fromString(String player) {
+        switch (player) {
+            case "noir":  return NOIR;
+            case "blanc": return BLANC;
+            default: throw new IllegalArgumentException("Joueur inconnu : " + player);
+        }
+    }
+
+    static String toString(int couleur) {
+        return couleur == NOIR ? "noir" : "blanc";
+    }
+}
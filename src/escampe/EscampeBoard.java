@@ -6,11 +6,21 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.*;
 
-public class EscampeBoard implements Partie1 {
+public class EscampeBoard implements IEscampeBoard {
     private final char[][] board = new char[6][6];
     private int[][] liseres = new int[6][6];
     private int lastMoveLisere = -1;
     private boolean blackChoseHaut = false;
+    private int sideToMove = Couleur.NOIR;
+    private long hash = Zobrist.lisere(-1);
+
+    // Pile d'annulation de makeMove, une entrée par coup joué
+    private final int[] undoMove = new int[MAX_PLY];
+    private final char[] undoCaptured = new char[MAX_PLY];
+    private final int[] undoLisere = new int[MAX_PLY];
+    private final int[] undoSide = new int[MAX_PLY];
+    private final long[] undoHash = new long[MAX_PLY];
+    private int undoTop = 0;
 
     public EscampeBoard() {
         initLiseres();
@@ -41,6 +51,28 @@ public class EscampeBoard implements Partie1 {
         return lastMoveLisere;
     }
 
+    @Override
+    public void setLastMoveLisere(int lisere) {
+        hash ^= Zobrist.lisere(lastMoveLisere) ^ Zobrist.lisere(lisere);
+        lastMoveLisere = lisere;
+    }
+
+    @Override
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public void setSideToMove(int player) {
+        hash ^= Zobrist.side(sideToMove) ^ Zobrist.side(player);
+        sideToMove = player;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
     private void resetBoard() {
         for (char[] row : board) Arrays.fill(row, '-');
     }
@@ -61,6 +93,7 @@ public class EscampeBoard implements Partie1 {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        hash = Zobrist.compute(this);
     }
 
     @Override
@@ -76,26 +109,29 @@ public class EscampeBoard implements Partie1 {
 
     @Override
     public boolean isValidMove(String move, String player) {
-        if (move.equals("E") && this.possiblesMoves(player).isEmpty()) {
-            this.lastMoveLisere = -1;
-            return true;
+        return isValidMove(Move.parse(move), Couleur.fromString(player));
+    }
+
+    @Override
+    public boolean isValidMove(int move, int player) {
+        if (Move.isPass(move)) {
+            MoveList moves = new MoveList();
+            possiblesMoves(player, moves);
+            return moves.isEmpty();
         }
 
-        if (move.contains("/")) {
+        if (Move.isPlacement(move)) {
             return validateInitialPlacement(move, player);
         } else {
-            String[] parts = move.split("-");
-            if (parts.length != 2) return false;
-
-            Position start = parsePosition(parts[0]);
-            Position end = parsePosition(parts[1]);
-            if (start == null || end == null) return false;
+            if (!Move.isRegular(move)) return false;
 
+            Position start = squareToPosition(Move.from(move));
+            Position end = squareToPosition(Move.to(move));
             return isValidRegularMove(start, end, player);
         }
     }
 
-    private boolean isValidRegularMove(Position start, Position end, String player) {
+    private boolean isValidRegularMove(Position start, Position end, int player) {
         if (!isPlayerPiece(start, player)) return false;
         if (!checkLisereConstraint(start)) return false;
 
@@ -106,12 +142,8 @@ public class EscampeBoard implements Partie1 {
 
         if (!isEndPosValid(piece, endPiece)) return false;
 
-        // Vérification distance de Manhattan
-        int manhattan = Math.abs(end.row - start.row) + Math.abs(end.col - start.col);
-        if (manhattan > allowedSteps) return false;
-
-        // Vérification du chemin
-        return hasValidPath(start, end, allowedSteps);
+        // Vérification du chemin : exactement allowedSteps pas, sans case occupée traversée
+        return PathTables.hasPath(start.row * 6 + start.col, end.row * 6 + end.col, allowedSteps, occupancy());
     }
 
     public boolean isNextPosValid(char nextPos) {
@@ -125,37 +157,47 @@ public class EscampeBoard implements Partie1 {
         return !isPaladin || (endPiece == '-' || endPiece == ((piece == 'n') ? 'B' : 'N'));
     }
 
-    // Algorithme DFS pour trouver un chemin valide
-    private boolean hasValidPath(Position start, Position end, int steps) {
-        Set<Position> visited = new HashSet<>();
-        visited.add(start);
-        char piece = board[start.row][start.col];
-        return dfsPathfinding(start, end, steps, visited, piece);
+    @Override
+    public int getUnicornSquare(int player) {
+        char target = player == Couleur.NOIR ? 'N' : 'B';
+        for (int r = 0; r < 6; r++) {
+            for (int c = 0; c < 6; c++) {
+                if (board[r][c] == target) return r * 6 + c;
+            }
+        }
+        return -1;
     }
 
-    private boolean dfsPathfinding(Position current, Position end, int stepsLeft, Set<Position> visited, char piece) {
-        //if (current.equals(end) && stepsLeft == 0) return true;
-        if (current.equals(end)) return true;
-        if (stepsLeft == 0) return current.equals(end);
+    @Override
+    public boolean isAttacked(int square, int bySide, int lisereConstraint) {
+        char paladin = bySide == Couleur.NOIR ? 'n' : 'b';
+        if (!isEndPosValid(paladin, board[square / 6][square % 6])) return false;
 
-        for (Direction dir : Direction.values()) {
-            Position next = dir.move(current);
+        // Paladins de bySide regroupés par liseré
+        long[] attackers = new long[PathTables.MAX_STEPS + 1];
+        for (int r = 0; r < 6; r++) {
+            for (int c = 0; c < 6; c++) {
+                if (board[r][c] == paladin) attackers[liseres[r][c]] |= 1L << (r * 6 + c);
+            }
+        }
 
-            if (next.isValid() && !visited.contains(next)) {
-                boolean isValid = (stepsLeft > 1)
-                        ? isNextPosValid(board[next.row][next.col])
-                        : isEndPosValid(piece, board[next.row][next.col]);
+        long occupied = occupancy();
+        for (int k = 1; k <= PathTables.MAX_STEPS; k++) {
+            if (lisereConstraint != -1 && k != lisereConstraint) continue;
+            if (attackers[k] != 0 && PathTables.reachedFrom(square, k, attackers[k], occupied)) return true;
+        }
+        return false;
+    }
 
-                if (isValid) {
-                    Set<Position> newVisited = new HashSet<>(visited);
-                    newVisited.add(next);
-                    if (dfsPathfinding(next, end, stepsLeft - 1, newVisited, piece)) {
-                        return true;
-                    }
-                }
+    // Masque des cases occupées (bit ligne*6 + colonne)
+    private long occupancy() {
+        long occupied = 0L;
+        for (int r = 0; r < 6; r++) {
+            for (int c = 0; c < 6; c++) {
+                if (board[r][c] != '-') occupied |= 1L << (r * 6 + c);
             }
         }
-        return false;
+        return occupied;
     }
 
     private boolean checkLisereConstraint(Position start) {
@@ -164,66 +206,145 @@ public class EscampeBoard implements Partie1 {
 
     @Override
     public List<String> possiblesMoves(String player) {
-        List<String> moves = new ArrayList<>();
+        MoveList moves = new MoveList();
+        possiblesMoves(Couleur.fromString(player), moves);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) result.add(Move.toString(moves.get(i)));
+        return result;
+    }
+
+    @Override
+    public void possiblesMoves(int player, MoveList moves) {
+        moves.clear();
         for (int r = 0; r < 6; r++) {
             for (int c = 0; c < 6; c++) {
                 if (isPlayerPiece(new Position(r, c), player)) {
-                    generateMovesFrom(r, c, moves, player);
+                    generateMovesFrom(r, c, moves);
                 }
             }
         }
-        return moves;
     }
 
-    private void generateMovesFrom(int r, int c, List<String> moves, String player) {
+    private void generateMovesFrom(int r, int c, MoveList moves) {
+        if (!checkLisereConstraint(new Position(r, c))) return;
+
         int steps = liseres[r][c];
-        Position start = new Position(r, c);
+        char piece = board[r][c];
 
-        // Explore toutes les cases à distance de Manhattan = steps
-        for (int nr = 0; nr < 6; nr++) {
-            for (int nc = 0; nc < 6; nc++) {
-                Position end = new Position(nr, nc);
-                int distance = Math.abs(nr - r) + Math.abs(nc - c);
+        // Cases d'arrivée des chemins libres de exactement steps pas, dans l'ordre du plateau
+        long dests = PathTables.destinations(r * 6 + c, steps, occupancy());
+        while (dests != 0) {
+            int sq = Long.numberOfTrailingZeros(dests);
+            dests &= dests - 1;
+
+            if (isEndPosValid(piece, board[sq / 6][sq % 6])) {
+                moves.add(Move.regular(r * 6 + c, sq));
+            }
+        }
+    }
 
-                if (distance == steps && isValidRegularMove(start, end, player)) {
-                    moves.add(positionToNotation(r, c) + "-" + positionToNotation(nr, nc));
+    @Override
+    public int countMoves(int player, int toLisere) {
+        long occupied = occupancy();
+        int count = 0;
+        for (int r = 0; r < 6; r++) {
+            for (int c = 0; c < 6; c++) {
+                if (!isPlayerPiece(new Position(r, c), player) || !checkLisereConstraint(new Position(r, c))) continue;
+
+                long dests = PathTables.destinations(r * 6 + c, liseres[r][c], occupied);
+                while (dests != 0) {
+                    int sq = Long.numberOfTrailingZeros(dests);
+                    dests &= dests - 1;
+                    if ((toLisere == -1 || liseres[sq / 6][sq % 6] == toLisere)
+                            && isEndPosValid(board[r][c], board[sq / 6][sq % 6])) count++;
                 }
             }
         }
+        return count;
     }
 
     @Override
     public void play(String move, String player) {
+        play(Move.parse(move), Couleur.fromString(player));
+    }
+
+    @Override
+    public void play(int move, int player) {
         if (!isValidMove(move, player)) throw new IllegalArgumentException("Coup invalide");
+        apply(move, player);
+        if (Zobrist.DEBUG) Zobrist.check(this);
+    }
 
-        if (move.contains("/")) {
+    // Joue un coup supposé valide et renvoie le contenu de la case d'arrivée avant le coup
+    private char apply(int move, int player) {
+        if (Move.isPlacement(move)) {
             handleInitialPlacement(move, player);
-        } else if (!move.equals("E")) {
-            handleRegularMove(move);
+            // Blanc joue le premier coup après les deux placements
+            setSideToMove(Couleur.BLANC);
+            return '-';
+        }
+
+        char captured = '-';
+        if (Move.isPass(move)) {
+            setLastMoveLisere(-1);
+        } else {
+            captured = handleRegularMove(Move.from(move), Move.to(move));
         }
-        //currentPlayer = currentPlayer.equals("noir") ? "blanc" : "noir";
+        setSideToMove(Couleur.adversaire(player));
+        return captured;
     }
 
-    private void handleRegularMove(String move) {
-        String[] parts = move.split("-");
-        Position start = parsePosition(parts[0]);
-        Position end = parsePosition(parts[1]);
+    private char handleRegularMove(int from, int to) {
+        Position start = squareToPosition(from);
+        Position end = squareToPosition(to);
+        char piece = board[start.row][start.col];
+        char captured = board[end.row][end.col];
 
-        lastMoveLisere = liseres[end.row][end.col];
-        board[end.row][end.col] = board[start.row][start.col];
+        setLastMoveLisere(liseres[end.row][end.col]);
+        board[end.row][end.col] = piece;
         board[start.row][start.col] = '-';
+        hash ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to) ^ Zobrist.piece(captured, to);
+        return captured;
     }
 
-    // Méthodes utilitaires
-    private Position parsePosition(String pos) {
-        if (pos.length() < 2) return null;
-        int col = pos.charAt(0) - 'A';
-        int row = Integer.parseInt(pos.substring(1)) - 1;
-        return (row >= 0 && row < 6 && col >= 0 && col < 6) ? new Position(row, col) : null;
+    @Override
+    public void makeMove(int move, int player) {
+        int ply = undoTop++;
+        undoMove[ply] = move;
+        undoLisere[ply] = lastMoveLisere;
+        undoSide[ply] = sideToMove;
+        undoHash[ply] = hash;
+        undoCaptured[ply] = apply(move, player);
+        if (Zobrist.DEBUG) Zobrist.check(this);
     }
 
-    private String positionToNotation(int r, int c) {
-        return (char)('A' + c) + "" + (r + 1);
+    @Override
+    public void unmakeMove() {
+        int ply = --undoTop;
+        int move = undoMove[ply];
+        lastMoveLisere = undoLisere[ply];
+        sideToMove = undoSide[ply];
+        hash = undoHash[ply];
+
+        if (Move.isPlacement(move)) {
+            long placed = Move.placementSquares(move);
+            while (placed != 0) {
+                int sq = Long.numberOfTrailingZeros(placed);
+                placed &= placed - 1;
+                board[sq / 6][sq % 6] = '-';
+            }
+        } else if (!Move.isPass(move)) {
+            Position start = squareToPosition(Move.from(move));
+            Position end = squareToPosition(Move.to(move));
+            board[start.row][start.col] = board[end.row][end.col];
+            board[end.row][end.col] = undoCaptured[ply];
+        }
+        if (Zobrist.DEBUG) Zobrist.check(this);
+    }
+
+    // Méthodes utilitaires
+    private Position squareToPosition(int sq) {
+        return new Position(sq / 6, sq % 6);
     }
 
     @Override
@@ -239,29 +360,25 @@ public class EscampeBoard implements Partie1 {
     }
 
     // Vérifie si une pièce appartient au joueur
-    private boolean isPlayerPiece(Position pos, String player) {
-        if (pos == null) return false;
+    private boolean isPlayerPiece(Position pos, int player) {
         char c = board[pos.row][pos.col];
-        return (player.equals("noir") && (c == 'N' || c == 'n')) ||
-                (player.equals("blanc") && (c == 'B' || c == 'b'));
+        return (player == Couleur.NOIR && (c == 'N' || c == 'n')) ||
+                (player == Couleur.BLANC && (c == 'B' || c == 'b'));
     }
 
-    // Valide le placement initial des pièces
-    private boolean validateInitialPlacement(String move, String player) {
-        String[] parts = move.split("/");
-        if (parts.length != 6) return false;
-
-        Set<Position> positions = new HashSet<>();
-        for (String part : parts) {
-            Position pos = parsePosition(part);
-            if (pos == null || board[pos.row][pos.col] != '-') return false;
+    // Valide le placement initial des pièces (le coup codé tient sur deux lignes voisines)
+    private boolean validateInitialPlacement(int move, int player) {
+        List<Position> positions = new ArrayList<>();
+        long placed = Move.placementSquares(move);
+        while (placed != 0) {
+            Position pos = squareToPosition(Long.numberOfTrailingZeros(placed));
+            placed &= placed - 1;
+            if (board[pos.row][pos.col] != '-') return false;
             positions.add(pos);
         }
 
-        if (positions.size() != 6) return false;
-
         // Détermine les rangées autorisées
-        if (player.equals("noir")) {
+        if (player == Couleur.NOIR) {
             boolean validHaut = positions.stream().allMatch(p -> p.row == 4 || p.row == 5);
             boolean validBas = positions.stream().allMatch(p -> p.row == 0 || p.row == 1);
 
@@ -279,19 +396,22 @@ public class EscampeBoard implements Partie1 {
         return true;
     }
 
-    private void handleInitialPlacement(String move, String player) {
-        String[] parts = move.split("/");
-        char licorne = player.equals("noir") ? 'N' : 'B';
-        char paladin = player.equals("noir") ? 'n' : 'b';
+    private void handleInitialPlacement(int move, int player) {
+        char licorne = player == Couleur.NOIR ? 'N' : 'B';
+        char paladin = player == Couleur.NOIR ? 'n' : 'b';
 
         // Place la licorne
-        Position licornePos = parsePosition(parts[0]);
+        Position licornePos = squareToPosition(Move.placementUnicorn(move));
         board[licornePos.row][licornePos.col] = licorne;
+        hash ^= Zobrist.piece(licorne, Move.placementUnicorn(move));
 
         // Place les paladins
-        for (int i = 1; i < parts.length; i++) {
-            Position p = parsePosition(parts[i]);
-            board[p.row][p.col] = paladin;
+        long paladins = Move.placementPaladins(move);
+        while (paladins != 0) {
+            int sq = Long.numberOfTrailingZeros(paladins);
+            paladins &= paladins - 1;
+            board[sq / 6][sq % 6] = paladin;
+            hash ^= Zobrist.piece(paladin, sq);
         }
     }
 
@@ -301,13 +421,16 @@ public class EscampeBoard implements Partie1 {
             System.arraycopy(this.board[i], 0, copy.board[i], 0, 6);
         }
         copy.lastMoveLisere = this.lastMoveLisere;
+        copy.sideToMove = this.sideToMove;
+        copy.hash = this.hash;
         return copy;
     }
 
-    public void printBoard() {
+    public String boardString() {
         String header = "   A B C D E F ";
         String space = "   ";
-        System.out.println(header + space + "  " + header);
+        StringBuilder text = new StringBuilder();
+        text.append(header).append(space).append("  ").append(header).append('\n');
         for (int i = 0; i < 6; i++) {
             StringBuilder line = new StringBuilder();
             // Game board
@@ -323,9 +446,14 @@ public class EscampeBoard implements Partie1 {
                 line.append(num).append(" ");
             }
             line.append("0" + (i+1));
-            System.out.println(line);
+            text.append(line).append('\n');
         }
-        System.out.println(header + space + "  " + header);
+        text.append(header).append(space).append("  ").append(header).append('\n');
+        return text.toString();
+    }
+
+    public void printBoard() {
+        System.out.print(boardString());
     }
 
     public String checkInitSide() {
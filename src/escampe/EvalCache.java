@@ -0,0 +1,90 @@
+package escampe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of static evaluations, shared by all search threads, without locks, with a fixed size
+ * and separate from the transposition table: a leaf met again through a transposition or in the
+ * next iteration is not evaluated twice.
+ *
+ * Direct-mapped: a position has a single slot, chosen by the low bits of its key, and a store
+ * always replaces what was there. The key is the Zobrist hash, XORed with a constant when black
+ * evaluates, as the evaluation is not symmetric. Each slot is one long, the high half of the key
+ * on bits 32-63 and the score on bits 0-31, read and written atomically (opaque accesses): a
+ * slot never holds the halves of two different stores, and a probe either finds the whole score
+ * of its key or misses.
+ */
+class EvalCache {
+    /** value of probe when the position is not in the cache; never stored */
+    static final int MISS = Integer.MIN_VALUE;
+    private static final long NOIR_KEY = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    // Statistics since the last resetStats(); updated by all threads
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /** @param megabytes size of the cache, rounded down to a power of two number of slots */
+    EvalCache(int megabytes) {
+        long entries = Math.max(1, (long) megabytes * 1024 * 1024 / 8);
+        int log2Entries = Math.min(63 - Long.numberOfLeadingZeros(entries), 28);
+        slots = new AtomicLongArray(1 << log2Entries);
+        mask = (1 << log2Entries) - 1;
+    }
+
+    /** a cache of the given size, or null (no cache) for 0 */
+    static EvalCache create(int megabytes) {
+        return megabytes > 0 ? new EvalCache(megabytes) : null;
+    }
+
+    /** size of the cache in megabytes */
+    int megabytes() {
+        return (int) ((long) slots.length() * 8 / (1024 * 1024));
+    }
+
+    /** the evaluation of the position of hash from player's point of view, or MISS */
+    int probe(long hash, int player) {
+        probes.increment();
+        long key = key(hash, player);
+        long slot = slots.getOpaque((int) key & mask);
+        if (slot == 0 || (slot ^ key) >>> 32 != 0) return MISS;
+        hits.increment();
+        return (int) slot;
+    }
+
+    void store(long hash, int player, int value) {
+        if (value == MISS) return;
+        long key = key(hash, player);
+        slots.setOpaque((int) key & mask, (key & 0xFFFFFFFF00000000L) | (value & 0xFFFFFFFFL));
+    }
+
+    /** empties the cache, e.g. between two benchmark calls */
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) slots.setOpaque(i, 0L);
+    }
+
+    void resetStats() {
+        probes.reset();
+        hits.reset();
+    }
+
+    /** share of the probes that found their position since the last resetStats() */
+    double hitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0.0 : (double) hits.sum() / p;
+    }
+
+    /** hit rate since the last resetStats(), for the logs */
+    String stats() {
+        long p = probes.sum();
+        return String.format("Cache d'évaluation %d Mo : %d sondages, %.1f%% trouvés",
+                megabytes(), p, p == 0 ? 0.0 : 100.0 * hits.sum() / p);
+    }
+
+    private static long key(long hash, int player) {
+        return player == Couleur.NOIR ? hash ^ NOIR_KEY : hash;
+    }
+}
@@ -0,0 +1,94 @@
+package escampe;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the static evaluation against a reference file, and measures its cost per call.
+ *
+ * The positions are those of the position files and of random games played from each of them
+ * (fixed seed, so the same positions every time). Each line of the reference file holds the hash
+ * of a position and its evaluation from both sides: any change of the evaluation function shows
+ * up as a differing line. --write rewrites the reference file instead of comparing.
+ *
+ * Exemple : java -cp bin escampe.EvalCheck positions/eval.golden positions/*.txt
+ */
+public class EvalCheck {
+    private static final long SEED = 2024;
+    private static final int GAMES_PER_POSITION = 4;
+    private static final int PLIES_PER_GAME = 40;
+    private static final int TIMING_ROUNDS = 200;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("EvalCheck Usage: FichierReference FichierPlateau... [--write] [--board=bitboard|reference]");
+            System.exit(1);
+        }
+
+        boolean write = false;
+        String engine = "bitboard";
+        List<String> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--write")) write = true;
+            else if (args[i].startsWith("--board=")) engine = args[i].substring(8);
+            else files.add(args[i]);
+        }
+
+        List<IEscampeBoard> positions = new ArrayList<>();
+        Random rand = new Random(SEED);
+        MoveList moves = new MoveList();
+        for (String file : files) {
+            IEscampeBoard start = SearchBench.load(file, engine);
+            positions.add(start.clone());
+            for (int g = 0; g < GAMES_PER_POSITION; g++) {
+                IEscampeBoard board = start.clone();
+                for (int ply = 0; ply < PLIES_PER_GAME && !board.gameOver(); ply++) {
+                    Perft.generate(board, board.getSideToMove(), moves);
+                    board.play(moves.get(rand.nextInt(moves.size())), board.getSideToMove());
+                    if (!board.gameOver()) positions.add(board.clone());
+                }
+            }
+        }
+
+        Searcher noir = new Searcher(Couleur.NOIR, new TranspositionTable(1));
+        Searcher blanc = new Searcher(Couleur.BLANC, new TranspositionTable(1));
+        List<String> lines = new ArrayList<>();
+        for (IEscampeBoard board : positions) {
+            lines.add(Long.toHexString(board.getHash()) + " " + noir.evaluate(board, Couleur.NOIR)
+                    + " " + blanc.evaluate(board, Couleur.BLANC));
+        }
+
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int round = 0; round < TIMING_ROUNDS; round++) {
+            for (IEscampeBoard board : positions) sink += noir.evaluate(board, Couleur.NOIR);
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%d positions, %d ns par évaluation (%d)%n",
+                positions.size(), nanos / ((long) TIMING_ROUNDS * positions.size()), sink & 1);
+
+        if (write) {
+            try (PrintWriter out = new PrintWriter(args[0], StandardCharsets.UTF_8.name())) {
+                for (String line : lines) out.println(line);
+            }
+            System.out.println("Référence écrite dans " + args[0]);
+            return;
+        }
+
+        List<String> expected = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+        int differences = Math.abs(expected.size() - lines.size());
+        for (int i = 0; i < Math.min(expected.size(), lines.size()); i++) {
+            if (expected.get(i).equals(lines.get(i))) continue;
+            if (differences++ < 10) System.out.println("Attendu " + expected.get(i) + ", obtenu " + lines.get(i));
+        }
+        System.out.println(differences == 0 ? "Évaluation identique à la référence"
+                : differences + " différences avec la référence");
+        if (differences > 0) System.exit(1);
+    }
+}
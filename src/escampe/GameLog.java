@@ -0,0 +1,272 @@
+package escampe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs of the players, kept off their move path: an event is a type and up to four numbers,
+ * written into a preallocated ring buffer, and a background thread turns them into text and
+ * prints them. Recording an event allocates nothing and never waits: when the ring is full (the
+ * console is far behind), the event is dropped and counted.
+ *
+ * The level comes from -Descampe.log=quiet|info|debug:
+ * - quiet records nothing, for tournaments: callers test info() or debug() before building
+ *   anything, so no board is formatted and no move list generated;
+ * - info (default) records the moves, the searches and the time left;
+ * - debug also records the boards before and after each move, the possible moves and the
+ *   detailed search statistics, formatted by the caller into text events.
+ *
+ * Several threads may record (the game thread, the pondering thread, the players of a
+ * MatchRunner): a slot is claimed by a compare-and-set on head, filled, then published by
+ * storing its sequence number, which the drain thread waits for before reading it.
+ */
+final class GameLog {
+    static final int QUIET = 0;
+    static final int INFO = 1;
+    static final int DEBUG = 2;
+    private static final int LEVEL = parseLevel(System.getProperty("escampe.log", "info"));
+
+    // Sources, printed in front of their events
+    static final int SUPER_FORT = 0;
+    static final int ENNEMI = 1;
+    static final int MCTS = 2;
+    private static final String[] SOURCE_NAMES = {"[SuperFort]", "[Ennemi]", "[MCTS]"};
+
+    // Events, with their numbers a, b, c, d (doubles as Double.doubleToRawLongBits)
+    /** text: preformatted text, debug only */
+    static final int TEXT = 0;
+    /** move: move played (ours, or the opponent's for ENNEMI), Move encoding */
+    static final int MOVE = 1;
+    /** book move: move */
+    static final int BOOK_MOVE = 2;
+    /** remaining time: ms left on our clock */
+    static final int TIME_LEFT = 3;
+    /** placement searched: placement, score, best reply (Move.NONE if none), replies searched */
+    static final int PLACEMENT_CANDIDATE = 4;
+    /** placement chosen: placements searched, candidates, score */
+    static final int PLACEMENT = 5;
+    /** end of search: depth, score, nodes, ms */
+    static final int SEARCH = 6;
+    /** search profile: threads, budget ms, first move cutoff rate, effective branching factor */
+    static final int SEARCH_PROFILE = 7;
+    /** forced capture found by the solver: plies, nodes, ms */
+    static final int SOLVER_CAPTURE = 8;
+    /** moves removed by the solver: count */
+    static final int SOLVER_PRUNED = 9;
+    /** pondering started: expected reply */
+    static final int PONDER_START = 10;
+    /** expected reply played, pondering goes on */
+    static final int PONDER_HIT = 11;
+    /** unexpected reply, pondering dropped */
+    static final int PONDER_MISS = 12;
+    /** end of game: winner colour */
+    static final int WINNER = 13;
+    /** Monte Carlo search: playouts, ms, threads, tree nodes */
+    static final int MCTS_SEARCH = 14;
+    /** Monte Carlo result: reused nodes, visits of the best move, its reward rate */
+    static final int MCTS_RESULT = 15;
+
+    private static final int CAPACITY = 1 << 12;
+    private static final int MASK = CAPACITY - 1;
+    private static final int ARGS = 4;
+    // Pause of the drain thread when the ring is empty
+    private static final long IDLE_NANOS = 5_000_000;
+    private static final long FLUSH_TIMEOUT_MILLIS = 2000;
+
+    private static final GameLog INSTANCE = LEVEL == QUIET ? null : new GameLog();
+
+    // source << 8 | event, the numbers and the texts of each slot
+    private final int[] events = new int[CAPACITY];
+    private final long[] args = new long[CAPACITY * ARGS];
+    private final String[] texts = new String[CAPACITY];
+    // sequence + 1 of the event held by each slot, set once it is filled
+    private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    // next sequence to record, and next sequence to print (written by the drain thread only)
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final LongAdder dropped = new LongAdder();
+
+    private GameLog() {
+        Thread drainer = new Thread(this::drain, "escampe-log");
+        drainer.setDaemon(true);
+        drainer.start();
+        // the events still in the ring when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLog::flush, "escampe-log-flush"));
+    }
+
+    private static int parseLevel(String level) {
+        switch (level) {
+            case "quiet": return QUIET;
+            case "info":  return INFO;
+            case "debug": return DEBUG;
+            default: throw new IllegalArgumentException("Niveau de log inconnu : " + level);
+        }
+    }
+
+    static boolean info() {
+        return LEVEL >= INFO;
+    }
+
+    static boolean debug() {
+        return LEVEL >= DEBUG;
+    }
+
+    static void record(int source, int event) {
+        record(source, event, 0, 0, 0, 0);
+    }
+
+    static void record(int source, int event, long a) {
+        record(source, event, a, 0, 0, 0);
+    }
+
+    static void record(int source, int event, long a, long b) {
+        record(source, event, a, b, 0, 0);
+    }
+
+    static void record(int source, int event, long a, long b, long c) {
+        record(source, event, a, b, c, 0);
+    }
+
+    static void record(int source, int event, long a, long b, long c, long d) {
+        if (INSTANCE != null) INSTANCE.put(source, event, a, b, c, d, null);
+    }
+
+    /** debug text, to be built only when debug() is true */
+    static void text(int source, String text) {
+        if (LEVEL >= DEBUG) INSTANCE.put(source, TEXT, 0, 0, 0, 0, text);
+    }
+
+    /** waits (2 s at most) until the events recorded so far are printed, e.g. at the end of a game */
+    static void flush() {
+        if (INSTANCE == null) return;
+        long target = INSTANCE.head.get();
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        while (INSTANCE.tail < target && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(IDLE_NANOS / 5);
+        }
+    }
+
+    private void put(int source, int event, long a, long b, long c, long d, String text) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= CAPACITY) {
+                dropped.increment();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & MASK;
+        events[slot] = source << 8 | event;
+        int base = slot * ARGS;
+        args[base] = a;
+        args[base + 1] = b;
+        args[base + 2] = c;
+        args[base + 3] = d;
+        texts[slot] = text;
+        published.setRelease(slot, sequence + 1);
+    }
+
+    /** the drain thread: prints the published events in order, a batch at a time */
+    private void drain() {
+        StringBuilder out = new StringBuilder(4096);
+        long reportedDrops = 0;
+        while (true) {
+            long sequence = tail;
+            int slot = (int) sequence & MASK;
+            if (published.getAcquire(slot) == sequence + 1) {
+                format(slot, out);
+                texts[slot] = null;
+                tail = sequence + 1;
+                if (out.length() < 64 * 1024) continue;
+            }
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                out.append("[Log] ").append(drops - reportedDrops).append(" événements perdus\n");
+                reportedDrops = drops;
+            }
+            if (out.length() > 0) {
+                // looked up each time: MatchRunner replaces System.out
+                System.out.print(out);
+                System.out.flush();
+                out.setLength(0);
+            } else {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    private void format(int slot, StringBuilder out) {
+        int event = events[slot] & 0xFF;
+        int base = slot * ARGS;
+        long a = args[base];
+        long b = args[base + 1];
+        long c = args[base + 2];
+        long d = args[base + 3];
+        out.append(SOURCE_NAMES[events[slot] >>> 8]).append(' ');
+        switch (event) {
+            case TEXT:
+                out.append(texts[slot]);
+                break;
+            case MOVE:
+                out.append(events[slot] >>> 8 == ENNEMI ? "Coup joué : " : "Coup choisi : ").append(Move.toString((int) a));
+                break;
+            case BOOK_MOVE:
+                out.append("Coup du livre : ").append(Move.toString((int) a));
+                break;
+            case TIME_LEFT:
+                out.append("Temps restant : ").append(a).append(" ms");
+                break;
+            case PLACEMENT_CANDIDATE:
+                out.append("Placement ").append(Move.toString((int) a)).append(" : ").append(b)
+                        .append(" (réponse ").append(c == Move.NONE ? "?" : Move.toString((int) c))
+                        .append(", ").append(d).append(" réponses évaluées)");
+                break;
+            case PLACEMENT:
+                out.append(a).append('/').append(b).append(" placements évalués, score ").append(c);
+                break;
+            case SEARCH:
+                out.append("Profondeur atteinte : ").append(a).append(", score ").append(b).append(", ").append(c)
+                        .append(" noeuds en ").append(d).append(" ms (").append(c * 1000 / Math.max(1, d))
+                        .append(" noeuds/s)");
+                break;
+            case SEARCH_PROFILE:
+                out.append(String.format("%d threads, budget %d ms, coupures au premier coup : %.1f%%, "
+                                + "facteur de branchement effectif %.2f", a, b,
+                        100 * Double.longBitsToDouble(c), Double.longBitsToDouble(d)));
+                break;
+            case SOLVER_CAPTURE:
+                out.append("Prise forcée de la licorne en ").append(a).append(" demi-coups au plus (").append(b)
+                        .append(" noeuds en ").append(c).append(" ms)");
+                break;
+            case SOLVER_PRUNED:
+                out.append(a).append(" coups perdants écartés par le solveur");
+                break;
+            case PONDER_START:
+                out.append("Réflexion sur le temps adverse, réponse attendue : ").append(Move.toString((int) a));
+                break;
+            case PONDER_HIT:
+                out.append("Réponse attendue jouée, la réflexion continue");
+                break;
+            case PONDER_MISS:
+                out.append("Réponse inattendue, réflexion abandonnée");
+                break;
+            case WINNER:
+                out.append("Vainqueur : ").append(a == Couleur.BLANC ? "Blanc" : "Noir");
+                break;
+            case MCTS_SEARCH:
+                out.append(a).append(" simulations en ").append(b).append(" ms (").append(a * 1000 / Math.max(1, b))
+                        .append("/s, ").append(c).append(" threads), ").append(d).append(" noeuds");
+                break;
+            case MCTS_RESULT:
+                out.append(String.format("%d noeuds réutilisés, coup visité %d fois, %.1f%% de gains",
+                        a, b, 100 * Double.longBitsToDouble(c)));
+                break;
+            default:
+                out.append("événement inconnu ").append(event);
+        }
+        out.append('\n');
+    }
+}
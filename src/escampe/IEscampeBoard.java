@@ -0,0 +1,86 @@
+package escampe;
+
+/**
+ * Plateau d'Escampe tel que l'IA le manipule. Étend {@link Partie1} avec les accesseurs
+ * utilisés par la recherche, afin de pouvoir choisir entre plusieurs représentations
+ * (tableau de caractères de référence ou bitboards) sans toucher au joueur.
+ */
+public interface IEscampeBoard extends Partie1 {
+
+    /** profondeur maximale de la pile d'annulation de makeMove */
+    static final int MAX_PLY = 128;
+
+    /** liserés du plateau, indexés [ligne][colonne], valeurs 1, 2 ou 3 */
+    public int[][] getLiseres();
+
+    /** contenu d'une case : 'N'/'n' pour noir, 'B'/'b' pour blanc, '-' si vide */
+    public char getBoardCell(int row, int col);
+
+    /** liseré imposé au prochain coup, -1 s'il n'y a pas de contrainte */
+    public int getLastMoveLisere();
+
+    /** impose le liseré du prochain coup (-1 pour aucun), par exemple après setFromFile */
+    public void setLastMoveLisere(int lisere);
+
+    public boolean isNextPosValid(char nextPos);
+
+    /** joueur qui a le trait : noir au début de la partie, blanc après les deux placements */
+    public int getSideToMove();
+
+    public void setSideToMove(int player);
+
+    /**
+     * hash de Zobrist de la position (pièces, trait et liseré imposé), mis à jour à chaque coup.
+     * Avec -Descampe.debugHash=true, chaque mise à jour est comparée à un recalcul complet.
+     */
+    public long getHash();
+
+    /** case (ligne*6 + colonne) de la licorne du joueur, -1 si elle a été prise */
+    public int getUnicornSquare(int player);
+
+    /**
+     * vrai si un paladin de bySide peut jouer sur square : pièce au liseré lisereConstraint
+     * (-1 pour n'importe quel liseré), chemin libre et case d'arrivée autorisée pour un paladin.
+     * Équivaut à tester isValidMove sur chaque paladin, sans générer ni valider de coup.
+     */
+    public boolean isAttacked(int square, int bySide, int lisereConstraint);
+
+    /** "Top" si le joueur noir a placé ses pièces sur les lignes 1 et 2, "Bottom" sinon */
+    public String checkInitSide();
+
+    public void printBoard();
+
+    /** le plateau tel que l'affiche printBoard, lignes terminées par '\n' */
+    public String boardString();
+
+    /**
+     * variante de Partie1.isValidMove sur un coup codé par {@link Move}
+     * @param player Couleur.NOIR ou Couleur.BLANC
+     */
+    public boolean isValidMove(int move, int player);
+
+    /** remplit moves avec les coups possibles du joueur, dans l'ordre de possiblesMoves(String) */
+    public void possiblesMoves(int player, MoveList moves);
+
+    /**
+     * nombre de coups de possiblesMoves(player, moves), comptés sans les générer ; avec toLisere
+     * de 1 à 3, seuls les coups qui arrivent sur une case de ce liseré sont comptés (-1 pour tous)
+     */
+    public int countMoves(int player, int toLisere);
+
+    /** variante de Partie1.play sur un coup codé ; lève IllegalArgumentException si le coup est invalide */
+    public void play(int move, int player);
+
+    /**
+     * joue le coup sur place, sans le valider : réservé aux coups produits par possiblesMoves
+     * (ou déjà validés). Le coup peut être annulé avec unmakeMove.
+     * @param move le coup codé par {@link Move}, y compris Move.PASS et les placements
+     * @param player Couleur.NOIR ou Couleur.BLANC
+     */
+    public void makeMove(int move, int player);
+
+    /** annule le dernier coup joué avec makeMove */
+    public void unmakeMove();
+
+    public IEscampeBoard clone();
+}
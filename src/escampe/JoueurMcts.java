@@ -0,0 +1,138 @@
+package escampe;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Player searching with Monte Carlo tree search ({@link MctsTree}) instead of alpha-beta: random
+ * playouts from the leaves of a tree grown toward the moves that win them, in several threads.
+ * The tree is kept from one move to the next: after our move and the opponent's reply, the
+ * subtree below them becomes the new tree.
+ * The placement comes from the opening book, or from the same placement search as JoueurSuperFort.
+ *
+ * Exemple : java -cp bin escampe.ClientJeu escampe.JoueurMcts localhost 1234
+ */
+public class JoueurMcts implements IJoueur {
+    private int color;
+    private IEscampeBoard escampeBoard;
+    private final String boardEngine = System.getProperty("escampe.board", "bitboard");
+    private boolean isInitialPhase = true;
+    private final int minMaxDepthInitPos = 5;
+
+    // Nodes of the tree (two arenas of this size are allocated) and number of playout threads,
+    // via -Descampe.mctsNodes=... and -Descampe.threads=...
+    private final MctsTree tree = new MctsTree(Integer.getInteger("escampe.mctsNodes", 1 << 20));
+    private final int searchThreads = Integer.getInteger("escampe.threads", Runtime.getRuntime().availableProcessors());
+    private final ExecutorService pool = Executors.newFixedThreadPool(searchThreads, r -> {
+        Thread t = new Thread(r, "escampe-mcts");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Placement only: a small table, the playouts do not use one
+    private final int placementMillis = Integer.getInteger("escampe.placementMillis", 10000);
+    private final TranspositionTable transpositionTable = new TranspositionTable(16);
+    private final OpeningBook book = OpeningBook.open(System.getProperty("escampe.book", "book.bin"));
+
+    private final TimeManager timeManager = new TimeManager(
+            Integer.getInteger("escampe.gameMillis", 5 * 60 * 1000), Integer.getInteger("escampe.marginMillis", 1000));
+    private int moveNumber = 0;
+
+    @Override
+    public void initJoueur(int myColor) {
+        color = myColor;
+        escampeBoard = JoueurSuperFort.newBoard(boardEngine);
+    }
+
+    @Override
+    public int getNumJoueur() {
+        return color;
+    }
+
+    @Override
+    public String choixMouvement() {
+        timeManager.startMove(moveNumber++);
+        try {
+            int chosenMove = isInitialPhase ? placement() : searchMove();
+            escampeBoard.play(chosenMove, color);
+            GameLog.record(GameLog.MCTS, GameLog.MOVE, chosenMove);
+            if (GameLog.debug()) GameLog.text(GameLog.MCTS, "Plateau après le coup :\n" + escampeBoard.boardString());
+            return Move.toString(chosenMove);
+        } finally {
+            timeManager.endMove();
+            GameLog.record(GameLog.MCTS, GameLog.TIME_LEFT, timeManager.remaining());
+        }
+    }
+
+    private int placement() {
+        isInitialPhase = false;
+        int move = book.probe(escampeBoard.getHash(), ThreadLocalRandom.current());
+        if (move != Move.NONE && escampeBoard.isValidMove(move, color)) {
+            GameLog.record(GameLog.MCTS, GameLog.BOOK_MOVE, move);
+            return move;
+        }
+
+        long deadline = Math.min(System.currentTimeMillis() + placementMillis, timeManager.hardDeadline());
+        PlacementSearch placementSearch = new PlacementSearch(color, transpositionTable, minMaxDepthInitPos, searchThreads);
+        transpositionTable.newSearch();
+        MoveList candidates = JoueurSuperFort.placementCandidates(escampeBoard, color);
+        // black has nothing to search against yet: its first preferred placement
+        if (color == NOIR) return candidates.get(0);
+        move = placementSearch.search(escampeBoard, color, candidates, deadline);
+        GameLog.record(GameLog.MCTS, GameLog.PLACEMENT, placementSearch.searched(), candidates.size(),
+                placementSearch.bestScore());
+        return move == Move.NONE ? candidates.get(0) : move;
+    }
+
+    private int searchMove() {
+        MoveList moves = new MoveList();
+        escampeBoard.possiblesMoves(color, moves);
+        if (moves.isEmpty()) {
+            tree.advance(Move.PASS);
+            return Move.PASS;
+        }
+        if (moves.size() == 1) {
+            tree.advance(moves.get(0));
+            return moves.get(0);
+        }
+
+        if (!tree.isRootOf(escampeBoard)) tree.reset(escampeBoard);
+        int reused = tree.size();
+        long start = System.currentTimeMillis();
+        tree.search(Math.min(start + timeManager.softLimit(), timeManager.hardDeadline()), searchThreads, pool);
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+
+        int move = tree.bestMove();
+        // no playout finished before the deadline (clock spent): any legal move rather than none
+        if (move == Move.NONE) move = moves.get(0);
+        if (GameLog.info()) {
+            GameLog.record(GameLog.MCTS, GameLog.MCTS_SEARCH, tree.playouts(), elapsed, searchThreads, tree.size());
+            GameLog.record(GameLog.MCTS, GameLog.MCTS_RESULT, reused, tree.bestVisits(),
+                    Double.doubleToRawLongBits(tree.bestRewardRate()));
+        }
+        tree.advance(move);
+        return move;
+    }
+
+    @Override
+    public void mouvementEnnemi(String coup) {
+        int move = Move.parse(coup);
+        escampeBoard.play(move, -color);
+        GameLog.record(GameLog.ENNEMI, GameLog.MOVE, move);
+        if (!isInitialPhase) tree.advance(move);
+    }
+
+    @Override
+    public void declareLeVainqueur(int colour) {
+        // the game is over: the playout threads are released
+        pool.shutdown();
+        GameLog.record(GameLog.MCTS, GameLog.WINNER, colour);
+        GameLog.flush();
+    }
+
+    @Override
+    public String binoName() {
+        return "SuperFortDuTurfu";
+    }
+}
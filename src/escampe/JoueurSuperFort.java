@@ -1,473 +1,472 @@
 package escampe;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class JoueurSuperFort implements IJoueur {
     private int color;
-    private EscampeBoard escampeBoard;
+    private IEscampeBoard escampeBoard;
+    // Plateau utilisé par l'IA : "bitboard" ou "reference" (EscampeBoard), via -Descampe.board=...
+    private final String boardEngine;
     private boolean isInitialPhase = true;
-    private final String initPosBottom = "F6/E6/F5/C5/D5/B5";
-    private final String initPosTop = "F1/A2/C2/E2/F2/D2";
-    private final String[] logNames = {"[SuperFort]", "[Ennemi]"};
-    private final int minMaxDepthInGame = 10;
+    private static final String initPosBottom = "F6/E6/F5/C5/D5/B5";
+    private static final String initPosTop = "F1/A2/C2/E2/F2/D2";
+    // Iterative deepening stops at this depth if time allows, via -Descampe.maxDepth=...
+    private final int minMaxDepthInGame = Integer.getInteger("escampe.maxDepth", 30);
     private final int minMaxDepthInitPos = 5;
-    private final int nInitPos = 300;
-
-    // Random 64-bit keys for every piece type × square
-    private final long[][] zobristPaladins = new long[2][36];
-    private final long[]   zobristUnicorns = new long[2]; // one unicorn per side
-    private long           zobristSideToMove;       // random key for side-to-move
-    private long[]         zobristNextBorder = new long[4]; // keys for each border constraint (-1, 1, 2, 3)
+    // Placements tried first, before the exhaustive enumeration (only those legal on the board are kept)
+    static final String[] preferredPlacements = {
+            initPosBottom,
+            "F6/D6/E5/C5/B5/F5", // Variante stratégique 1
+            "E6/F6/D5/C5/E5/B5", // Variante stratégique 2
+            initPosTop,
+            "A1/B1/C2/D2/E2/F2", // Variante stratégique 3
+            "B1/A2/C2/D2/F2/E2"  // Variante stratégique 4
+    };
+    // Time budget of the whole placement phase and number of search threads, via -Descampe.xxx=...
+    private final int placementMillis = Integer.getInteger("escampe.placementMillis", 10000);
+    private final int searchThreads = Integer.getInteger("escampe.threads", Runtime.getRuntime().availableProcessors());
+
+    // Our cache: zobristHash → entry, shared by all search threads, size in MB via -Descampe.ttMegabytes=...
+    private final TranspositionTable transpositionTable = new TranspositionTable(Integer.getInteger("escampe.ttMegabytes", 64));
+    // Leaf evaluations, shared by all search threads and kept from one move to the next, size in
+    // MB via -Descampe.evalCacheMegabytes=... (0 to disable)
+    private final EvalCache evalCache = EvalCache.create(Integer.getInteger("escampe.evalCacheMegabytes", 8));
+    private Searcher searcher;
+    // searchThreads - 1 helper threads searching alongside the main one
+    private LazySmp smp;
+    // Search metrics of the game, also published in JMX; JFR events are emitted for each move
+    // and each iteration (escampe.MoveChoice, escampe.SearchIteration)
+    private SearchMonitor monitor;
+
+    // Proof-number solver of forced unicorn captures, run before the search in tactical positions,
+    // via -Descampe.solver=false, -Descampe.solverPlies=..., -Descampe.solverNodes=..., -Descampe.solverMegabytes=...
+    private final boolean solverEnabled = Boolean.parseBoolean(System.getProperty("escampe.solver", "true"));
+    private final int solverPlies = Integer.getInteger("escampe.solverPlies", 7);
+    private final int solverNodes = Integer.getInteger("escampe.solverNodes", 100000);
+    private final CaptureSolver solver = new CaptureSolver(Integer.getInteger("escampe.solverMegabytes", 16));
+    // With this many moves or fewer, the position counts as an endgame for the solver
+    private static final int SOLVER_FEW_MOVES = 8;
+    // The solver stops after this fraction of the move's soft limit, whatever its node budget
+    private static final int SOLVER_TIME_DIVISOR = 4;
+
+    // Opening book (placements and first moves), written by BookBuilder, via -Descampe.book=...
+    private final OpeningBook book = OpeningBook.open(System.getProperty("escampe.book", "book.bin"));
+
+    // Our clock: 5 minutes for the whole game, via -Descampe.gameMillis=...
+    private final TimeManager timeManager = new TimeManager(
+            Integer.getInteger("escampe.gameMillis", 5 * 60 * 1000), Integer.getInteger("escampe.marginMillis", 1000));
+    private int moveNumber = 0;
+
+    // Pondering: after our move, search the position after the opponent's expected reply on
+    // its time, in a background thread (-Descampe.ponder=false to disable)
+    private final boolean ponderEnabled = Boolean.parseBoolean(System.getProperty("escampe.ponder", "true"));
+    private final ExecutorService ponderThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "escampe-ponder");
+        t.setDaemon(true);
+        return t;
+    });
+    private Future<Integer> ponderResult;
+    private int ponderMove = Move.NONE;
+    private boolean ponderHit = false;
+    // While true, the running search has no time limit; cleared when the ponder move is played
+    private volatile boolean pondering = false;
+    // Results of the last ponder search, published to the monitor only on a ponder hit (read
+    // after ponderResult.get(), which makes them visible)
+    private int ponderDepth;
+    private int ponderScore;
+    private long ponderMillis;
+    private double ponderBranchingFactor;
+    // Whether the current move was searched, for its JFR event
+    private boolean moveSearched;
+
+    public JoueurSuperFort() {
+        this(System.getProperty("escampe.board", "bitboard"));
+    }
 
-    // Our cache: zobristHash → TTEntry
-    private final Map<Long,TTEntry> transpositionTable = new HashMap<>();
+    public JoueurSuperFort(String boardEngine) {
+        this.boardEngine = boardEngine;
+    }
 
     @Override
     public void initJoueur(int myColor) {
         color = myColor;
-        escampeBoard = new EscampeBoard();
-        initZobrist();
+        escampeBoard = newBoard(boardEngine);
+        searcher = new Searcher(color, transpositionTable, evalCache);
+        smp = new LazySmp(color, transpositionTable, evalCache, Math.max(0, searchThreads - 1));
+        monitor = new SearchMonitor(searcher, smp, transpositionTable, evalCache);
+        monitor.register("SuperFort-" + getCouleurString());
     }
 
-    @Override
-    public void declareLeVainqueur(int colour) {
-        System.out.println("[SuperFort] Vainqueur : " + (colour == BLANC ? "Blanc" : "Noir"));
+    /** metrics of our searches, since initJoueur */
+    SearchMonitor monitor() {
+        return monitor;
     }
 
-    private void initZobrist() {
-        Random rnd = new Random(123456);  // fixed seed for reproducibility
-        for(int side=0; side<2; side++){
-            for(int sq=0; sq<36; sq++){
-                zobristPaladins[side][sq] = rnd.nextLong();
-            }
-            zobristUnicorns[side] = rnd.nextLong();
+    /** plateau vide de l'implémentation demandée : "bitboard" ou "reference" */
+    static IEscampeBoard newBoard(String boardEngine) {
+        switch (boardEngine) {
+            case "bitboard":  return new BitboardEscampeBoard();
+            case "reference": return new EscampeBoard();
+            default: throw new IllegalArgumentException("Plateau inconnu : " + boardEngine);
         }
+    }
 
-        zobristSideToMove = rnd.nextLong();
-        for (int i = 0; i < zobristNextBorder.length; i++) {
-            zobristNextBorder[i] = rnd.nextLong();
-        }
+    @Override
+    public void declareLeVainqueur(int colour) {
+        stopPondering();
+        // the game is over: the threads of the player are released
+        ponderThread.shutdown();
+        smp.shutdown();
+        monitor.unregister();
+        GameLog.record(GameLog.SUPER_FORT, GameLog.WINNER, colour);
+        GameLog.flush();
     }
 
     @Override
     public String choixMouvement() {
-        printLogsBeforeMove(logNames[0]);
+        logBoard(GameLog.SUPER_FORT, "Plateau avant le coup :");
+
+        MoveChoiceEvent event = new MoveChoiceEvent();
+        event.begin();
+        moveSearched = false;
+        timeManager.startMove(moveNumber++);
+        String chosen = null;
+        try {
+            chosen = isInitialPhase ? initialPhaseMovement() : inGameMovement();
+            return chosen;
+        } finally {
+            timeManager.endMove();
+            GameLog.record(GameLog.SUPER_FORT, GameLog.TIME_LEFT, timeManager.remaining());
+            commitMoveEvent(event, chosen, moveSearched);
+        }
+    }
 
-        if (isInitialPhase) return initialPhaseMovement();
-        else return inGameMovement();
+    /** ends the JFR event of the move, with the results of its search if there was one */
+    private void commitMoveEvent(MoveChoiceEvent event, String move, boolean searched) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.moveNumber = moveNumber - 1;
+        event.move = move;
+        if (searched) {
+            event.depth = monitor.getDepth();
+            event.score = monitor.getScore();
+            event.nodes = monitor.lastNodes();
+            event.ttHitRate = transpositionTable.hitRate();
+            event.effectiveBranchingFactor = monitor.getEffectiveBranchingFactor();
+        }
+        event.commit();
     }
 
     public String initialPhaseMovement() {
         isInitialPhase = false;
+        int chosenMove = bookMove();
+        if (chosenMove == Move.NONE) chosenMove = searchPlacement();
 
-        if (color == 1) { // If I'm black, I always start
-            escampeBoard.play(initPosBottom, getCouleurString());
-            printLogsAfterMove(logNames[0], initPosBottom);
-
-            return initPosBottom; // We arbitrarily choose to start at the bottom as it doesn't matter
-        }
-        else { // If I'm white, I need to check the side black player chose, then place my pawn
-            String blackSide = escampeBoard.checkInitSide();
-            List<String> possiblePositions = new ArrayList<>();
-
-            // Génère toutes les positions initiales possibles selon le côté choisi par le noir
-            if (blackSide.equals("Top")) {
-                possiblePositions.add(initPosBottom);
-                possiblePositions.add("F6/E6/F5/C5/D5/B5"); // Position basique 1
-                possiblePositions.add("F6/D6/E5/C5/B5/F5"); // Variante stratégique 1
-                possiblePositions.add("E6/F6/D5/C5/E5/B5"); // Variante stratégique 2
-
-                possiblePositions.addAll(generateRandomInitialPositions(blackSide, nInitPos));
-            }
-            else {
-                possiblePositions.add(initPosTop);
-                possiblePositions.add("F1/A2/C2/E2/F2/D2"); // Position basique 2
-                possiblePositions.add("A1/B1/C2/D2/E2/F2"); // Variante stratégique 3
-                possiblePositions.add("B1/A2/C2/D2/F2/E2"); // Variante stratégique 4
+        escampeBoard.play(chosenMove, color);
+        logMove(GameLog.SUPER_FORT, chosenMove);
+        return Move.toString(chosenMove);
+    }
 
-                possiblePositions.addAll(generateRandomInitialPositions(blackSide, nInitPos));
-            }
+    private int searchPlacement() {
+        long deadline = Math.min(System.currentTimeMillis() + placementMillis, timeManager.hardDeadline());
+        PlacementSearch placementSearch = new PlacementSearch(color, transpositionTable, minMaxDepthInitPos, searchThreads);
+        transpositionTable.newSearch();
+        int chosenMove;
 
-            String bestPosition = possiblePositions.get(0);
+        if (color == NOIR) { // If I'm black, I always start
+            // Each of our candidates is scored by white's best reply, searched with the same engine
+            String[] candidates = {initPosBottom, initPosTop};
+            chosenMove = Move.parse(initPosBottom);
             int bestScore = Integer.MIN_VALUE;
-
-            // Évaluation MinMax pour chaque configuration possible
-            for (String position : possiblePositions) {
-                EscampeBoard simulated = escampeBoard.clone();
-                simulated.play(position, getCouleurString());
-
-                int score = minMax(simulated, minMaxDepthInitPos, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
-
-                if (score > bestScore) {
+            IEscampeBoard searchBoard = escampeBoard.clone();
+            for (int i = 0; i < candidates.length; i++) {
+                int candidate = Move.parse(candidates[i]);
+                long now = System.currentTimeMillis();
+                long candidateDeadline = now + Math.max(0, deadline - now) / (candidates.length - i);
+
+                searchBoard.makeMove(candidate, color);
+                int reply = placementSearch.search(searchBoard, BLANC,
+                        placementCandidates(searchBoard, BLANC), candidateDeadline);
+                searchBoard.unmakeMove();
+
+                int score = placementSearch.bestScore();
+                GameLog.record(GameLog.SUPER_FORT, GameLog.PLACEMENT_CANDIDATE, candidate, score, reply,
+                        placementSearch.searched());
+                if (reply != Move.NONE && score > bestScore) {
                     bestScore = score;
-                    bestPosition = position;
+                    chosenMove = candidate;
                 }
             }
-
-            escampeBoard.play(bestPosition, getCouleurString());
-            printLogsAfterMove(logNames[0], bestPosition);
-
-            return bestPosition;
         }
-    }
-
-    long computeZobrist(EscampeBoard board, String playerToMove) {
-        long h = 0L;
-        // piece bitboards
-        for (int row = 0; row < 6; row++) {
-            for (int col = 0; col < 6; col++) {
-                int sq = row*6 + col;
-                char c = board.getBoardCell(row, col);
-                switch(c) {
-                    case 'n': h ^= zobristPaladins[0][sq]; break;
-                    case 'b': h ^= zobristPaladins[1][sq]; break;
-                    case 'N': h ^= zobristUnicorns[0];      break;
-                    case 'B': h ^= zobristUnicorns[1];      break;
-                }
-            }
-        }
-
-        // side to move
-        if (playerToMove.equals("blanc")) {
-            h ^= zobristSideToMove;
+        else { // If I'm white, I need to check the side black player chose, then place my pawn
+            MoveList candidates = placementCandidates(escampeBoard, color);
+            chosenMove = placementSearch.search(escampeBoard, color, candidates, deadline);
+            if (chosenMove == Move.NONE) chosenMove = candidates.get(0);
+            GameLog.record(GameLog.SUPER_FORT, GameLog.PLACEMENT, placementSearch.searched(), candidates.size(),
+                    placementSearch.bestScore());
         }
+        if (GameLog.debug()) GameLog.text(GameLog.SUPER_FORT, transpositionTable.stats());
+        return chosenMove;
+    }
 
-        // next-border constraint
-        int next = board.getLastMoveLisere();
-        if (next == -1) next = 0; // if there is no current border, say its tag is 0
-        h ^= zobristNextBorder[next];
-        return h;
+    /** a move of the opening book for the current position, Move.NONE if it has none */
+    private int bookMove() {
+        int move = book.probe(escampeBoard.getHash(), ThreadLocalRandom.current());
+        if (move == Move.NONE || !escampeBoard.isValidMove(move, color)) return Move.NONE;
+        GameLog.record(GameLog.SUPER_FORT, GameLog.BOOK_MOVE, move);
+        return move;
     }
 
-    private List<String> generateRandomInitialPositions(String opponentSide, int count) {
-        List<String> positions = new ArrayList<>();
+    /**
+     * Every legal placement of player, once each: the preferred placements first, then the
+     * others in random order, so that a search cut by its deadline still samples them evenly.
+     */
+    static MoveList placementCandidates(IEscampeBoard board, int player) {
+        MoveList candidates = PlacementSearch.legalPlacements(board, player);
         Random rand = new Random();
+        for (int i = candidates.size() - 1; i > 0; i--) {
+            swap(candidates, i, rand.nextInt(i + 1));
+        }
 
-        for (int i = 0; i < count; i++) {
-            if (opponentSide.equals("Top")) {
-                positions.add(generateInitPosition(rand, 5));
-            } else {
-                positions.add(generateInitPosition(rand, 1));
+        int front = 0;
+        for (String preferred : preferredPlacements) {
+            int move = Move.parse(preferred);
+            for (int i = front; i < candidates.size(); i++) {
+                if (candidates.get(i) == move) {
+                    swap(candidates, i, front++);
+                    break;
+                }
             }
         }
-        return positions;
+        return candidates;
     }
 
-    private String generateInitPosition(Random rand, int side) {
-        // Logique de génération aléatoire pour le bas
-        return String.format("%s%d/%s%d/%s%d/%s%d/%s%d/%s%d",
-                (char)('A' + rand.nextInt(6)), rand.nextInt(2) + side,
-                (char)('A' + rand.nextInt(6)), rand.nextInt(2) + side,
-                (char)('A' + rand.nextInt(6)), rand.nextInt(2) + side,
-                (char)('A' + rand.nextInt(6)), rand.nextInt(2) + side,
-                (char)('A' + rand.nextInt(6)), rand.nextInt(2) + side,
-                (char)('A' + rand.nextInt(6)), rand.nextInt(2) + side);
+    private static void swap(MoveList moves, int i, int j) {
+        int tmp = moves.get(i);
+        moves.set(i, moves.get(j));
+        moves.set(j, tmp);
     }
 
     public String inGameMovement() {
-        List<String> possibleMoves = escampeBoard.possiblesMoves(getCouleurString());
-        System.out.println("[SuperFort] Movements possibles : " + possibleMoves);
-
-        String chosenMove = "E";
-        if (!possibleMoves.isEmpty()) {
-            chosenMove = findBestMove(minMaxDepthInGame);
-        }
-
-        escampeBoard.play(chosenMove, getCouleurString());
-        printLogsAfterMove(logNames[0], chosenMove);
-
-        return chosenMove;
-    }
-
-    private String findBestMove(int depth) {
-        List<String> moves = escampeBoard.possiblesMoves(getCouleurString());
-        int bestValue = Integer.MIN_VALUE;
-        List<String> topMoves = new ArrayList<>();
-
-        for (String move : moves) {
-            EscampeBoard simulated = escampeBoard.clone();
-            simulated.play(move, getCouleurString());
-
-            int value = minMax(simulated, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
-
-            if (value > bestValue) {
-                bestValue = value;
-                topMoves.clear();
-                topMoves.add(move);
-            } else if (value == bestValue) {
-                topMoves.add(move);
-            }
-        }
-
-        System.out.println("========== Top moves length : " + topMoves.size());
-        // Now pick randomly among the best
-        return topMoves.get(ThreadLocalRandom.current().nextInt(topMoves.size()));
-    }
-
-    private int minMax(EscampeBoard board, int depth, int alpha, int beta, boolean maximizingPlayer) {
-        long zobrist = computeZobrist(board, String.valueOf(maximizingPlayer));
-        TTEntry entry = transpositionTable.get(zobrist);
-
-        if (entry != null && entry.depth >= depth) {
-            // use cached value
-            if (entry.flag == 0) return entry.value; // exact
-            if (entry.flag < 0 && entry.value <= alpha) return entry.value; // alpha-bound
-            if (entry.flag > 0 && entry.value >= beta)  return entry.value; // beta-bound
+        if (GameLog.debug()) {
+            GameLog.text(GameLog.SUPER_FORT, "Mouvements possibles : " + escampeBoard.possiblesMoves(getCouleurString()));
         }
 
-        int originalAlpha = alpha;
-        int value;
-        if (depth == 0 || board.gameOver()) {
-            return evaluate(board, getCouleurString());
-        }
-        else if (maximizingPlayer) {
-            value = Integer.MIN_VALUE;
-
-            for (String move : board.possiblesMoves(getCouleurString())) {
-                EscampeBoard simulated = board.clone();
-                simulated.play(move, getCouleurString());
-
-                value = Math.max(value, minMax(simulated, depth - 1, alpha, beta, false));
-                alpha = Math.max(alpha, value);
-                if (beta <= alpha) break;
+        int chosenMove = Move.PASS;
+        if (ponderHit) {
+            chosenMove = finishPondering();
+        } else if (escampeBoard.countMoves(color, -1) > 0) {
+            chosenMove = bookMove();
+            if (chosenMove == Move.NONE) {
+                transpositionTable.newSearch();
+                searcher.setDeadline(timeManager.hardDeadline());
+                chosenMove = findBestMove(escampeBoard, minMaxDepthInGame, true);
             }
         }
-        else {
-            value = Integer.MAX_VALUE;
 
-            for (String move : board.possiblesMoves(getCouleurEnnemiString())) {
-                EscampeBoard simulated = board.clone();
-                simulated.play(move, getCouleurEnnemiString());
+        escampeBoard.play(chosenMove, color);
+        logMove(GameLog.SUPER_FORT, chosenMove);
 
-                value = Math.min(value, minMax(simulated, depth - 1, alpha, beta, true));
-                beta = Math.min(beta, value);
-                if (beta <= alpha) break;
-            }
-        }
-
-        // Store in table
-        TTEntry newEntry = new TTEntry();
-        newEntry.depth = depth;
-        newEntry.value = value;
-        newEntry.bestMove = null; // you could track the PV here if desired
-        if (value <= originalAlpha) newEntry.flag = -1; // upper bound
-        else if (value >= beta)      newEntry.flag = 1; // lower bound
-        else                         newEntry.flag = 0; // exact
-        transpositionTable.put(zobrist, newEntry);
-
-        return value;
+        startPondering();
+        return Move.toString(chosenMove);
     }
 
-    private int evaluate(EscampeBoard board, String player) {
-        int score = 0;
-        String enemy = player.equals("noir") ? "blanc" : "noir";
-
-        // Immediate win/loss
-        if (canCaptureUnicorn(board, player)) return Integer.MAX_VALUE - 1;
-        if (canCaptureUnicorn(board, enemy)) return Integer.MIN_VALUE + 1;
-
-        // Locate pieces
-        Position myUnicorn = findUnicorn(board, player);
-        Position enemyUnicorn = findUnicorn(board, enemy);
-        List<Position> myPaladins = getPaladins(board, player);
-        List<Position> enemyPaladins = getPaladins(board, enemy);
-
-        // Mobility differential: compare accessible moves count
-        int myMobility = board.possiblesMoves(player).size();
-        int enemyMobility = board.possiblesMoves(enemy).size();
-        score += (myMobility - enemyMobility) * 5;
-
-        // Threat distance: sum of distances of paladins to focus on unicorn
-        int myThreatSum = 0;
-        for (Position p : myPaladins) {
-            myThreatSum += optimizedDistance(board, p, enemyUnicorn);
-        }
-        int enemyThreatSum = 0;
-        for (Position p : enemyPaladins) {
-            enemyThreatSum += optimizedDistance(board, p, myUnicorn);
-        }
-        // reward smaller myThreatSum, penalize smaller enemyThreatSum
-        score += (enemyThreatSum - myThreatSum) * 2;
-
-        // Piece safety zones: discourage unicorn near high-value border if enemy paladin close
-        int[][] borders = board.getLiseres();
-        int myUnicornValue = borders[myUnicorn.row][myUnicorn.col];
-        // find min distance from any enemy paladin
-        int minDistEnemyToMyUni = Integer.MAX_VALUE;
-        for (Position p : enemyPaladins) {
-            int d = optimizedDistance(board, p, myUnicorn);
-            minDistEnemyToMyUni = Math.min(minDistEnemyToMyUni, d);
-        }
-        // if enemy is close (<3), heavy penalty on high-value border
-        if (minDistEnemyToMyUni < 3) {
-            score -= myUnicornValue * 8;
-        }
-
-        // Paladin proximity to enemy unicorn
-        for (Position p : myPaladins) {
-            int dist = optimizedDistance(board, p, enemyUnicorn);
-            score += 50 / (dist + 1);
-        }
-        // Safety of allied unicorn from enemy paladins
-        for (Position p : enemyPaladins) {
-            int dist = optimizedDistance(board, p, myUnicorn);
-            score -= 30 / (dist + 1);
-        }
-        // Control of strategic borders
-        for (Position p : myPaladins) {
-            score += borders[p.row][p.col] * 3;
-        }
-        // Future mobility
-        int nextBorder = board.getLastMoveLisere();
-        score += countAccessibleTiles(board, player, nextBorder) * 2;
-
-        return score;
+    /**
+     * Guesses the opponent's reply (the best move stored in the TT for the position after our
+     * move) and starts searching the resulting position with no time limit.
+     */
+    private void startPondering() {
+        if (!ponderEnabled || escampeBoard.gameOver()) return;
+
+        TTEntry entry = new TTEntry();
+        if (!transpositionTable.probe(escampeBoard.getHash(), entry)
+                || !escampeBoard.isValidMove(entry.bestMove, -color)) return;
+        IEscampeBoard ponderBoard = escampeBoard.clone();
+        ponderBoard.makeMove(entry.bestMove, -color);
+        if (ponderBoard.gameOver() || ponderBoard.countMoves(color, -1) == 0) return;
+
+        ponderMove = entry.bestMove;
+        GameLog.record(GameLog.SUPER_FORT, GameLog.PONDER_START, ponderMove);
+        pondering = true;
+        transpositionTable.newSearch();
+        // before submitting, so that a stopPondering() issued right away is not lost
+        searcher.setDeadline(Long.MAX_VALUE);
+        ponderResult = ponderThread.submit(() -> findBestMove(ponderBoard, minMaxDepthInGame, false));
     }
 
-    private boolean canCaptureUnicorn(EscampeBoard board, String player) {
-        String enemy = player.equals("noir") ? "blanc" : "noir";
-        Position enemyUnicorn = findUnicorn(board, enemy);
-        if (enemyUnicorn == null) return true; // Unicorn already captured
-
-        List<Position> myPaladins = getPaladins(board, player);
-        String enemyUnicornPos = positionToNotation(enemyUnicorn.row, enemyUnicorn.col);
-
-        for (Position p : myPaladins) {
-            String move = positionToNotation(p.row, p.col) + "-" + enemyUnicornPos;
-            if (board.isValidMove(move, player)) {
-                return true;
+    /** ponder hit: the running search becomes the search of this move, with the normal time budget */
+    private int finishPondering() {
+        searcher.setHardDeadline(timeManager.hardDeadline());
+        pondering = false;
+        try {
+            int move = ponderResult.get();
+            // the ponder search was this move's search: its figures become the move's
+            if (ponderDepth > 0) {
+                monitor.endMove(ponderDepth, ponderScore, ponderMillis, ponderBranchingFactor);
+                moveSearched = true;
             }
+            return move;
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec de la réflexion sur le temps adverse", e);
+        } finally {
+            ponderResult = null;
+            ponderHit = false;
         }
-        return false;
     }
 
-    private Position findUnicorn(EscampeBoard board, String player) {
-        char target = player.equals("noir") ? 'N' : 'B';
-
-        for (int row = 0; row < 6; row++) {
-            for (int col = 0; col < 6; col++) {
-                if (board.getBoardCell(row, col) == target) {
-                    return new Position(row, col);
-                }
-            }
+    /** ponder miss or end of game: stops the background search and drops its result */
+    private void stopPondering() {
+        if (ponderResult == null) return;
+        searcher.requestStop();
+        try {
+            ponderResult.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec de la réflexion sur le temps adverse", e);
+        } finally {
+            ponderResult = null;
+            ponderHit = false;
+            pondering = false;
         }
-        return null; // Not found (end of game)
     }
 
-    private List<Position> getPaladins(EscampeBoard board, String player) {
-        List<Position> paladins = new ArrayList<>();
-        char target = player.equals("noir") ? 'n' : 'b';
-
-        for (int row = 0; row < 6; row++) {
-            for (int col = 0; col < 6; col++) {
-                if (board.getBoardCell(row, col) == target) {
-                    paladins.add(new Position(row, col));
-                }
+    /**
+     * Iterative deepening: searches depth 1, 2, ... until the time manager stops it (never while
+     * pondering), and returns the best move of the last completed iteration. Each iteration is
+     * searched with an aspiration window around the value of the previous one. The root moves are
+     * shuffled first, so that ties are broken at random; afterwards the best move is searched
+     * first and only a strictly better move replaces it.
+     * In a tactical position, the capture solver runs first: a forced capture is played at once,
+     * and the moves allowing one are not searched.
+     * The caller starts the search with searcher.setDeadline.
+     * @param moveSearch whether the move found is played at once (not a ponder search): its
+     *                   figures then go to the monitor, those of a ponder search only on a hit
+     */
+    private int findBestMove(IEscampeBoard root, int maxDepth, boolean moveSearch) {
+        long start = System.currentTimeMillis();
+        // a ponder search ended by the solver publishes no figures
+        if (!moveSearch) ponderDepth = 0;
+        MoveList moves = searcher.moves(0);
+        root.possiblesMoves(color, moves);
+        if (solverEnabled && CaptureSolver.looksTactical(root, moves, SOLVER_FEW_MOVES)) {
+            // a quarter of the move's budget at most, so that iterative deepening still starts
+            long solverDeadline = pondering ? Long.MAX_VALUE
+                    : Math.min(start + timeManager.softLimit() / SOLVER_TIME_DIVISOR, timeManager.hardDeadline());
+            if (solver.solve(root, solverPlies, solverNodes, solverDeadline) == CaptureSolver.PROVEN
+                    && solver.bestMove() != Move.NONE) {
+                GameLog.record(GameLog.SUPER_FORT, GameLog.SOLVER_CAPTURE, solverPlies, solver.nodes(),
+                        System.currentTimeMillis() - start);
+                return solver.bestMove();
             }
+            int removed = solver.removeLosingMoves(root, moves, solverPlies, solverNodes / moves.size(),
+                    solverDeadline);
+            if (removed > 0) GameLog.record(GameLog.SUPER_FORT, GameLog.SOLVER_PRUNED, removed);
         }
-        return paladins;
-    }
-
-    private int findShortestPathLengthBFS(EscampeBoard board, Position start, Position end) {
-        // Early-out if start == end
-        if (start.equals(end)) return 0;
-
-        boolean[][] visited = new boolean[6][6];
-        Queue<Position> queue = new LinkedList<>();
-
-        queue.add(start);
-        visited[start.row][start.col] = true;
-
-        int depth = 0;
-
-        while (!queue.isEmpty()) {
-            depth++;
-            int levelSize = queue.size();
-
-            for (int i = 0; i < levelSize; i++) {
-                Position current = queue.poll();
-
-                for (Direction dir : Direction.values()) {
-                    Position next = dir.move(current);
-
-                    if (!next.isValid()
-                            || visited[next.row][next.col]
-                            || !board.isNextPosValid(board.getBoardCell(next.row, next.col))) {
-                        continue;
-                    }
-
-                    // Found the target!
-                    if (next.equals(end)) {
-                        return depth;
-                    }
-
-                    visited[next.row][next.col] = true;
-                    queue.add(next);
-                }
-            }
+        Random rand = ThreadLocalRandom.current();
+        for (int i = moves.size() - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = moves.get(i);
+            moves.set(i, moves.get(j));
+            moves.set(j, tmp);
         }
 
-        // If we exhaust the queue without finding end, no path exists
-        return Integer.MAX_VALUE;
-    }
-
-    private int optimizedDistance(EscampeBoard board, Position a, Position b) {
-        return findShortestPathLengthBFS(board, a, b);
-    }
+        // The whole search walks this single board with makeMove/unmakeMove
+        IEscampeBoard searchBoard = root.clone();
+        // Helpers are stopped with the main search, whatever its deadline
+        smp.start(root, moves, maxDepth, Long.MAX_VALUE);
+
+        int bestMove = moves.get(0);
+        int bestValue = Searcher.NO_VALUE;
+        int reachedDepth = 0;
+        int stableIterations = 0;
+        // Nodes of the last two completed iterations, for the effective branching factor
+        long previousIterationNodes = 0;
+        long lastIterationNodes = 0;
+        for (int depth = 1; depth <= maxDepth && (pondering || timeManager.canStartIteration(stableIterations)); depth++) {
+            SearchIterationEvent iteration = new SearchIterationEvent();
+            iteration.begin();
+            long nodesBefore = searcher.nodes() + smp.nodes();
+            // The best move ends up first in moves
+            int iterationValue = searcher.searchIteration(searchBoard, moves, depth, bestValue);
+            long iterationNodes = searcher.nodes() + smp.nodes() - nodesBefore;
+            iteration.end();
+            if (iteration.shouldCommit()) {
+                iteration.depth = depth;
+                iteration.score = iterationValue;
+                iteration.bestMove = Move.toString(moves.get(0));
+                iteration.nodes = iterationNodes;
+                iteration.completed = !searcher.isStopped();
+                iteration.commit();
+            }
+            // Hard deadline: the unfinished iteration is thrown away
+            if (searcher.isStopped()) break;
+            previousIterationNodes = lastIterationNodes;
+            lastIterationNodes = iterationNodes;
+
+            bestValue = iterationValue;
+            if (reachedDepth > 0 && moves.get(0) == bestMove) {
+                stableIterations++;
+            } else {
+                bestMove = moves.get(0);
+                stableIterations = 0;
+            }
+            reachedDepth = depth;
 
-    public String positionToNotation(int row, int col) {
-        // Converts (row, col) coordinates to game notation (e.g., 0,0 -> A1)
-        if (row < 0 || row >= 6 || col < 0 || col >= 6) {
-            throw new IllegalArgumentException("Invalid coordinates: row=" + row + ", col=" + col);
+            // A capture of the enemy unicorn is forced: searching deeper will not change the move
+            if (bestValue > 0 && Searcher.isCapture(bestValue)) break;
         }
 
-        char columnChar = (char) ('A' + col);
-        int rowNumber = row + 1;
-        return String.valueOf(columnChar) + rowNumber;
-    }
-
-    public Position notationToPosition(String notation) {
-        if (notation == null || notation.length() < 2) {
-            throw new IllegalArgumentException("Invalid format: " + notation);
+        smp.stop();
+
+        long nodes = searcher.nodes() + smp.nodes();
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        double branchingFactor = previousIterationNodes == 0 ? 0.0 : (double) lastIterationNodes / previousIterationNodes;
+        if (moveSearch) {
+            monitor.endMove(reachedDepth, bestValue, elapsed, branchingFactor);
+            moveSearched = true;
+        } else {
+            ponderDepth = reachedDepth;
+            ponderScore = bestValue;
+            ponderMillis = elapsed;
+            ponderBranchingFactor = branchingFactor;
         }
-
-        char colChar = notation.charAt(0);
-        int col = colChar - 'A';
-
-        int row = Integer.parseInt(notation.substring(1)) - 1;
-
-        if (col < 0 || col >= 6 || row < 0 || row >= 6) {
-            throw new IllegalArgumentException("Position out of bounds: " + notation);
+        GameLog.record(GameLog.SUPER_FORT, GameLog.SEARCH, reachedDepth, bestValue, nodes, elapsed);
+        if (GameLog.info()) {
+            GameLog.record(GameLog.SUPER_FORT, GameLog.SEARCH_PROFILE, smp.helperCount() + 1, timeManager.softLimit(),
+                    Double.doubleToRawLongBits(monitor.current().firstMoveCutoffRate()),
+                    Double.doubleToRawLongBits(branchingFactor));
         }
-
-        return new Position(row, col);
-    }
-
-    private int countAccessibleTiles(EscampeBoard board, String player, int nextLisere) {
-        int score = 0;
-        List<String> possibleMoves = board.possiblesMoves(player);
-        int[][] liseres = board.getLiseres();
-
-        for (String move : possibleMoves) {
-            String[] moveSplit = move.split("-");
-            String endPos = moveSplit[1];
-
-            Position p = notationToPosition(endPos);
-            if (nextLisere == liseres[p.row][p.col]) score += nextLisere;
+        if (GameLog.debug()) {
+            GameLog.text(GameLog.SUPER_FORT, monitor.current().toString());
+            GameLog.text(GameLog.SUPER_FORT, transpositionTable.stats());
+            if (evalCache != null) GameLog.text(GameLog.SUPER_FORT, evalCache.stats());
         }
-
-        return score;
+        if (evalCache != null) evalCache.resetStats();
+        return bestMove;
     }
 
-
-
     @Override
     public void mouvementEnnemi(String coup) {
-        printLogsBeforeMove(getCouleurEnnemiString());
-        System.out.println("[Ennemi] Coup ennemi possibles : " + escampeBoard.possiblesMoves(getCouleurEnnemiString()));
+        if (ponderResult != null) {
+            if (Move.parse(coup) == ponderMove) {
+                // the search goes on and is picked up by the next choixMouvement
+                ponderHit = true;
+                GameLog.record(GameLog.SUPER_FORT, GameLog.PONDER_HIT);
+            } else {
+                stopPondering();
+                GameLog.record(GameLog.SUPER_FORT, GameLog.PONDER_MISS);
+            }
+        }
+
+        if (GameLog.debug()) {
+            logBoard(GameLog.ENNEMI, "Plateau avant le coup :");
+            GameLog.text(GameLog.ENNEMI, "Coups possibles : " + escampeBoard.possiblesMoves(getCouleurEnnemiString()));
+        }
         escampeBoard.play(coup, getCouleurEnnemiString());
-        printLogsAfterMove(logNames[1], coup);
+        if (GameLog.info()) logMove(GameLog.ENNEMI, Move.parse(coup));
     }
 
     @Override
@@ -475,16 +474,14 @@ public class JoueurSuperFort implements IJoueur {
         return color;
     }
 
-    public void printLogsBeforeMove(String joueur) {
-        System.out.println(joueur + " Plateau avant le coup :");
-        escampeBoard.printBoard();
+    /** the board, as a debug event; nothing is formatted below the debug level */
+    private void logBoard(int source, String title) {
+        if (GameLog.debug()) GameLog.text(source, title + "\n" + escampeBoard.boardString());
     }
 
-    public void printLogsAfterMove(String joueur, String coup) {
-        System.out.println(joueur + " Coup choisi : " + coup);
-        System.out.println(joueur + " Plateau après le coup :");
-        escampeBoard.printBoard();
-        System.out.println();
+    private void logMove(int source, int move) {
+        GameLog.record(source, GameLog.MOVE, move);
+        logBoard(source, "Plateau après le coup :");
     }
 
     public String getCouleurString() {
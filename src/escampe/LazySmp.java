@@ -0,0 +1,101 @@
+package escampe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lazy SMP: helper threads run their own iterative deepening on the root position while the
+ * main thread searches, sharing nothing but the transposition table and the evaluation cache.
+ * Their results are never used directly; the entries they store let the main search cut its
+ * own tree sooner, and the main thread alone picks the move.
+ *
+ * So that helpers do not walk the same tree in lockstep, odd helpers start one ply deeper and
+ * each helper tries the root moves in its own order.
+ */
+class LazySmp {
+    private final Searcher[] helpers;
+    private final ExecutorService pool;
+    private final List<Future<?>> running = new ArrayList<>();
+
+    /**
+     * @param evalCache evaluation cache shared with the main search, null for none
+     * @param helperCount number of helper threads, 0 for a single-threaded search
+     */
+    LazySmp(int color, TranspositionTable tt, EvalCache evalCache, int helperCount) {
+        helpers = new Searcher[helperCount];
+        for (int i = 0; i < helperCount; i++) helpers[i] = new Searcher(color, tt, evalCache);
+        pool = helperCount == 0 ? null : Executors.newFixedThreadPool(helperCount, r -> {
+            Thread t = new Thread(r, "escampe-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    int helperCount() {
+        return helpers.length;
+    }
+
+    /** starts the helpers on root (a copy is made for each), until stop() or deadline */
+    void start(IEscampeBoard root, MoveList rootMoves, int maxDepth, long deadline) {
+        for (int h = 0; h < helpers.length; h++) {
+            Searcher helper = helpers[h];
+            IEscampeBoard board = root.clone();
+            MoveList moves = new MoveList();
+            for (int i = 0; i < rootMoves.size(); i++) moves.add(rootMoves.get(i));
+            shuffle(moves, new Random(h + 1));
+            int firstDepth = 1 + (h & 1);
+
+            // before submitting, so that a stop() issued right away is not lost
+            helper.setDeadline(deadline);
+            running.add(pool.submit(() -> {
+                int value = Searcher.NO_VALUE;
+                for (int depth = firstDepth; depth <= maxDepth && !helper.isStopped(); depth++) {
+                    value = helper.searchIteration(board, moves, depth, value);
+                }
+            }));
+        }
+    }
+
+    /** adds the counters of the helpers, since the last start(), to sum */
+    void addMetrics(SearchMetrics sum) {
+        for (Searcher helper : helpers) sum.add(helper.metrics());
+    }
+
+    /** releases the helper threads, once no search will be started any more */
+    void shutdown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    /** stops the helpers and waits for them to return */
+    void stop() {
+        for (Searcher helper : helpers) helper.requestStop();
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Helper search failed", e);
+            }
+        }
+        running.clear();
+    }
+
+    /** nodes searched by the helpers since the last start() */
+    long nodes() {
+        long nodes = 0;
+        for (Searcher helper : helpers) nodes += helper.nodes();
+        return nodes;
+    }
+
+    private static void shuffle(MoveList moves, Random rand) {
+        for (int i = moves.size() - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = moves.get(i);
+            moves.set(i, moves.get(j));
+            moves.set(j, tmp);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package escampe;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Headless match between two IJoueur classes: many games played in parallel in one JVM, each
+ * with its own pair of players and its own EscampeBoard acting as arbiter (legal moves, end of
+ * game, time per move), the first player taking black in one game out of two.
+ *
+ * A player loses a game by playing an illegal move, by throwing an exception or by taking more
+ * than --moveMillis for a move; a game still going after --maxPlies plies is a draw. Each player
+ * runs in its own thread, so that one that hangs loses on time instead of blocking its game.
+ *
+ * The result is the Elo difference of the first player over the second, with a 95% confidence
+ * interval, and a sequential probability ratio test (SPRT) of H0 "the difference is elo0"
+ * against H1 "it is elo1", with error rates alpha and beta: the match stops as soon as the
+ * log-likelihood ratio leaves its bounds, or after --games games.
+ *
+ * The players log to System.out, which is silenced during the match. Unless set otherwise, the
+ * players get fast games and no logs: one search thread, no pondering, 20 s per game, quiet mode.
+ * Their tables (transposition table, evaluation cache, solver table, Monte Carlo tree) are also
+ * divided by the number of games in parallel, so that the match needs about the heap of one
+ * game at the default sizes (some 200 Mo for two JoueurSuperFort), whatever --threads.
+ *
+ * Exemple : java -cp bin escampe.MatchRunner JoueurSuperFort JoueurMcts --games=2000 --elo0=0 --elo1=20
+ */
+public class MatchRunner {
+    private static final double[] NO_INTERVAL = {Double.NaN, Double.NaN};
+
+    private final String firstClass;
+    private final String secondClass;
+    private final int games;
+    private final long moveMillis;
+    private final int maxPlies;
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    private final PrintStream out;
+
+    // Results from the first player's point of view, and reasons of forfeits and draws
+    private int wins;
+    private int draws;
+    private int losses;
+    private final Map<String, Integer> reasons = new TreeMap<>();
+    private volatile boolean decided;
+
+    MatchRunner(String firstClass, String secondClass, int games, long moveMillis, int maxPlies,
+                double elo0, double elo1, double alpha, double beta, PrintStream out) {
+        this.firstClass = firstClass;
+        this.secondClass = secondClass;
+        this.games = games;
+        this.moveMillis = moveMillis;
+        this.maxPlies = maxPlies;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+        this.out = out;
+    }
+
+    /** plays the games in threads threads, until the SPRT decides or all have been played */
+    void run(int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "escampe-match");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int g = 0; g < games; g++) {
+            int game = g;
+            pool.execute(() -> {
+                if (!decided) playGame(game);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        if (!decided) report("Fin du match sans décision du SPRT");
+    }
+
+    /** one game, the first player taking black in even games */
+    private void playGame(int game) {
+        int firstColor = game % 2 == 0 ? Couleur.NOIR : Couleur.BLANC;
+        Seat first = new Seat(newPlayer(firstClass), firstColor);
+        Seat second = new Seat(newPlayer(secondClass), -firstColor);
+        try {
+            String[] reason = new String[1];
+            int winner = firstColor == Couleur.NOIR ? play(first, second, reason) : play(second, first, reason);
+            for (Seat seat : new Seat[] {first, second}) {
+                // the game is decided: a player failing at its end changes nothing
+                seat.call(() -> {
+                    seat.player.declareLeVainqueur(winner);
+                    return null;
+                });
+            }
+            record(winner == 0 ? 1 : winner == firstColor ? 2 : 0, reason[0]);
+        } finally {
+            first.thread.shutdownNow();
+            second.thread.shutdownNow();
+        }
+    }
+
+    /**
+     * A player and the thread all its calls run in: the game thread waits for each call at most
+     * moveMillis, and a player still busy after that is left behind in its own thread.
+     */
+    private final class Seat {
+        final IJoueur player;
+        final String name;
+        final ExecutorService thread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "escampe-match-player");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Seat(IJoueur player, int color) {
+            this.player = player;
+            this.name = player.getClass().getSimpleName() + " (" + Couleur.toString(color) + ")";
+            call(() -> {
+                player.initJoueur(color);
+                return null;
+            });
+        }
+
+        /**
+         * runs task in the player's thread
+         * @return why the player loses (exception or time out), or null
+         */
+        String call(Callable<?> task) {
+            return call(task, new Object[1]);
+        }
+
+        /** call, storing the task's result into result[0] */
+        String call(Callable<?> task, Object[] result) {
+            Future<?> future = thread.submit(task);
+            try {
+                result[0] = future.get(moveMillis, TimeUnit.MILLISECONDS);
+                return null;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return name + " : temps dépassé";
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                return name + " : exception " + e.getCause().getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return name + " : partie interrompue";
+            }
+        }
+    }
+
+    /**
+     * Plays a game on the arbiter's board, asking each player its moves and telling it the
+     * opponent's.
+     * @param reason receives why the game ended other than by a capture, or null
+     * @return the winner (Couleur.NOIR or Couleur.BLANC), or 0 for a draw
+     */
+    private int play(Seat noir, Seat blanc, String[] reason) {
+        EscampeBoard arbiter = new EscampeBoard();
+        int side = Couleur.NOIR;
+        Object[] played = new Object[1];
+        for (int ply = 0; ply < maxPlies; ply++) {
+            Seat mover = side == Couleur.NOIR ? noir : blanc;
+            Seat opponent = side == Couleur.NOIR ? blanc : noir;
+
+            reason[0] = mover.call(mover.player::choixMouvement, played);
+            if (reason[0] != null) return -side;
+            String coup = (String) played[0];
+            int move = coup == null ? Move.NONE : Move.parse(coup);
+            if (move == Move.NONE || !arbiter.isValidMove(move, side)) {
+                reason[0] = mover.name + " : coup invalide";
+                return -side;
+            }
+            arbiter.play(move, side);
+
+            reason[0] = opponent.call(() -> {
+                opponent.player.mouvementEnnemi(coup);
+                return null;
+            });
+            if (reason[0] != null) return side;
+            if (ply >= 1 && arbiter.gameOver()) return side;
+            // after black's placement, white places its pieces then plays the first move
+            if (ply != 1) side = -side;
+        }
+        reason[0] = "nulle : " + maxPlies + " demi-coups";
+        return 0;
+    }
+
+    /** @param points points of the first player: 2 for a win, 1 for a draw, 0 for a loss */
+    private synchronized void record(int points, String reason) {
+        if (decided) return;
+        if (points == 2) wins++;
+        else if (points == 1) draws++;
+        else losses++;
+        if (reason != null) reasons.merge(reason, 1, Integer::sum);
+
+        double llr = llr();
+        int played = wins + draws + losses;
+        if (llr >= upperBound || llr <= lowerBound) {
+            decided = true;
+            report(llr >= upperBound ? "SPRT : H1 acceptée (Elo >= " + elo1 + ")" : "SPRT : H0 acceptée (Elo <= " + elo0 + ")");
+        } else if (played % 10 == 0 && played < games) {
+            out.println(summary());
+        }
+    }
+
+    private void report(String conclusion) {
+        out.println(summary());
+        for (Map.Entry<String, Integer> reason : reasons.entrySet()) {
+            out.println("  " + reason.getValue() + " x " + reason.getKey());
+        }
+        out.println(conclusion);
+    }
+
+    private String summary() {
+        int played = wins + draws + losses;
+        double[] interval = eloInterval();
+        return String.format("Parties %d : +%d =%d -%d, Elo %+.1f [%+.1f, %+.1f], LLR %.2f (bornes %.2f, %.2f)",
+                played, wins, draws, losses, elo(score()), interval[0], interval[1], llr(), lowerBound, upperBound);
+    }
+
+    /** mean score of the first player per game, between 0 and 1 */
+    private double score() {
+        int played = wins + draws + losses;
+        return played == 0 ? 0.5 : (wins + 0.5 * draws) / played;
+    }
+
+    /** variance of the score of one game */
+    private double variance() {
+        int played = wins + draws + losses;
+        if (played == 0) return 0;
+        double s = score();
+        return (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / played;
+    }
+
+    /** 95% confidence interval of the Elo difference */
+    private double[] eloInterval() {
+        int played = wins + draws + losses;
+        if (played < 2) return NO_INTERVAL;
+        double margin = 1.96 * Math.sqrt(variance() / played);
+        return new double[] {elo(score() - margin), elo(score() + margin)};
+    }
+
+    /**
+     * Log-likelihood ratio of H1 over H0, the mean score being taken as normally distributed:
+     * n / (2 var) * (s1 - s0) * (2 s - s0 - s1), with s0 and s1 the scores expected under H0 and H1.
+     */
+    private double llr() {
+        int played = wins + draws + losses;
+        double variance = variance();
+        if (variance <= 0) return 0;
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return played / (2 * variance) * (s1 - s0) * (2 * score() - s0 - s1);
+    }
+
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /** Elo difference giving the mean score s, infinite for 0 and 1 */
+    static double elo(double s) {
+        if (s <= 0) return Double.NEGATIVE_INFINITY;
+        if (s >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    private static IJoueur newPlayer(String className) {
+        try {
+            return playerType(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Joueur introuvable : " + className, e);
+        }
+    }
+
+    /** the IJoueur class className, checked without creating a player (and its tables) */
+    private static Class<? extends IJoueur> playerType(String className) {
+        try {
+            return Class.forName(className).asSubclass(IJoueur.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Joueur introuvable : " + className, e);
+        }
+    }
+
+    /** sets property to size / threads (at least 1), unless given on the command line */
+    private static void defaultSize(String property, int size, int threads) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, Integer.toString(Math.max(1, size / threads)));
+        }
+    }
+
+    private static String playerClass(String name) {
+        return name.contains(".") ? name : "escampe." + name;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("MatchRunner Usage: ClasseJoueur1 ClasseJoueur2 [--games=1000] [--threads=n]"
+                    + " [--moveMillis=3000] [--maxPlies=300] [--elo0=0] [--elo1=10] [--alpha=0.05] [--beta=0.05]");
+            System.exit(1);
+        }
+
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long moveMillis = 3000;
+        int maxPlies = 300;
+        double elo0 = 0;
+        double elo1 = 10;
+        double alpha = 0.05;
+        double beta = 0.05;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--games=")) games = Integer.parseInt(value);
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(value);
+            else if (arg.startsWith("--moveMillis=")) moveMillis = Long.parseLong(value);
+            else if (arg.startsWith("--maxPlies=")) maxPlies = Integer.parseInt(value);
+            else if (arg.startsWith("--elo0=")) elo0 = Double.parseDouble(value);
+            else if (arg.startsWith("--elo1=")) elo1 = Double.parseDouble(value);
+            else if (arg.startsWith("--alpha=")) alpha = Double.parseDouble(value);
+            else if (arg.startsWith("--beta=")) beta = Double.parseDouble(value);
+            else throw new IllegalArgumentException("Option inconnue : " + arg);
+        }
+
+        // Fast games, each player on one thread, unless given on the command line
+        System.setProperty("escampe.threads", System.getProperty("escampe.threads", "1"));
+        System.setProperty("escampe.ponder", System.getProperty("escampe.ponder", "false"));
+        System.setProperty("escampe.gameMillis", System.getProperty("escampe.gameMillis", "20000"));
+        System.setProperty("escampe.log", System.getProperty("escampe.log", "quiet"));
+        // Default table sizes of the players, shared between the games in parallel
+        defaultSize("escampe.ttMegabytes", 64, threads);
+        defaultSize("escampe.evalCacheMegabytes", 8, threads);
+        defaultSize("escampe.solverMegabytes", 16, threads);
+        defaultSize("escampe.mctsNodes", 1 << 20, threads);
+
+        String first = playerClass(args[0]);
+        String second = playerClass(args[1]);
+        playerType(first);
+        playerType(second);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        out.printf("%s contre %s : %d parties au plus, %d en parallèle, %d ms par coup, SPRT Elo %.1f contre %.1f%n",
+                first, second, games, threads, moveMillis, elo0, elo1);
+        MatchRunner runner = new MatchRunner(first, second, games, moveMillis, maxPlies, elo0, elo1, alpha, beta, out);
+        long start = System.currentTimeMillis();
+        runner.run(threads);
+        out.println("Durée : " + (System.currentTimeMillis() - start) / 1000 + " s");
+        System.setOut(out);
+    }
+}
@@ -0,0 +1,302 @@
+package escampe;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monte Carlo tree search (UCT) shared by several threads.
+ *
+ * Nodes live in a preallocated arena of primitive arrays, indexed by int, never one object per
+ * node; the children of a node are a contiguous block. Threads walk the same tree: visits and
+ * rewards are atomic counters, and each node on the path of a running playout carries a virtual
+ * loss (visits counted before the result) so that the other threads spread over other branches.
+ * A node is expanded by one thread only, the others running their playout from it meanwhile.
+ *
+ * Rewards are in half points (2 for a win, 1 for a playout cut before any capture, 0 for a loss),
+ * counted for the side that played the move leading to the node. The root is always node 0;
+ * after a move, the subtree of the new root is copied to the spare arena, which then becomes the
+ * current one.
+ */
+class MctsTree {
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+    private static final int VIRTUAL_LOSS = 3;
+    // Tree and playout plies, within the undo stack of the boards (MAX_PLY)
+    private static final int MAX_TREE_PLIES = 48;
+    private static final int PLAYOUT_PLIES = 72;
+    // UCT exploration constant, via -Descampe.mctsExploration=...
+    private static final double EXPLORATION = Double.parseDouble(System.getProperty("escampe.mctsExploration", "0.7"));
+
+    /** one arena: the fields of every node, by node index */
+    private static final class Arena {
+        final int[] move;
+        final int[] firstChild;
+        final int[] childCount;
+        final AtomicIntegerArray visits;
+        final AtomicIntegerArray rewards;
+        final AtomicIntegerArray state;
+
+        Arena(int capacity) {
+            move = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            visits = new AtomicIntegerArray(capacity);
+            rewards = new AtomicIntegerArray(capacity);
+            state = new AtomicIntegerArray(capacity);
+        }
+    }
+
+    private final int capacity;
+    private Arena arena;
+    private Arena spare;
+    // New index -> old index while copying a subtree
+    private final int[] copiedFrom;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder playouts = new LongAdder();
+
+    // Position of the root, null when the tree must be reset
+    private IEscampeBoard rootBoard;
+
+    /** @param capacity number of nodes of each of the two arenas */
+    MctsTree(int capacity) {
+        this.capacity = capacity;
+        arena = new Arena(capacity);
+        spare = new Arena(capacity);
+        copiedFrom = new int[capacity];
+    }
+
+    /** whether the root of the tree is board's position */
+    boolean isRootOf(IEscampeBoard board) {
+        return rootBoard != null && rootBoard.getHash() == board.getHash();
+    }
+
+    /** empties the tree, board becoming the root */
+    void reset(IEscampeBoard board) {
+        rootBoard = board.clone();
+        initNode(arena, 0, Move.NONE);
+        size.set(1);
+    }
+
+    /** number of nodes in use */
+    int size() {
+        return size.get();
+    }
+
+    /** playouts since the last search() started */
+    long playouts() {
+        return playouts.sum();
+    }
+
+    /**
+     * Plays move at the root: the subtree of the child is kept, if the root was expanded;
+     * otherwise the tree is dropped, to be reset before the next search.
+     */
+    void advance(int move) {
+        if (rootBoard == null) return;
+        int child = childWithMove(0, move);
+        if (child < 0) {
+            rootBoard = null;
+            return;
+        }
+        rootBoard.play(move, rootBoard.getSideToMove());
+        keepSubtree(child);
+    }
+
+    /** runs playouts from the root in threads threads until deadline (System.currentTimeMillis()) */
+    void search(long deadline, int threads, ExecutorService pool) {
+        playouts.reset();
+        Future<?>[] workers = new Future<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            IEscampeBoard board = rootBoard.clone();
+            workers[t] = pool.submit(() -> runPlayouts(board, deadline));
+        }
+        try {
+            for (Future<?> worker : workers) worker.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("MCTS search failed", e);
+        }
+    }
+
+    /** the most visited move of the root, Move.NONE if the root was not expanded (no playout yet) */
+    int bestMove() {
+        int best = bestChild();
+        return best < 0 ? Move.NONE : arena.move[best];
+    }
+
+    /** visits of the root's best move */
+    int bestVisits() {
+        int best = bestChild();
+        return best < 0 ? 0 : arena.visits.get(best);
+    }
+
+    /** share of the rewards of the root's best move, between 0 and 1 */
+    double bestRewardRate() {
+        int best = bestChild();
+        int visits = best < 0 ? 0 : arena.visits.get(best);
+        return visits == 0 ? 0.0 : arena.rewards.get(best) / (2.0 * visits);
+    }
+
+    private int bestChild() {
+        if (arena.state.get(0) != EXPANDED) return -1;
+        int best = -1;
+        for (int c = arena.firstChild[0]; c < arena.firstChild[0] + arena.childCount[0]; c++) {
+            if (best < 0 || arena.visits.get(c) > arena.visits.get(best)) best = c;
+        }
+        return best;
+    }
+
+    private void runPlayouts(IEscampeBoard board, long deadline) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        MoveList moves = new MoveList();
+        int[] path = new int[MAX_TREE_PLIES + 2];
+        int[] movers = new int[MAX_TREE_PLIES + 2];
+        for (int n = 0; (n & 15) != 0 || System.currentTimeMillis() < deadline; n++) {
+            Arena a = arena;
+            int node = 0;
+            int depth = 0;
+            path[0] = 0;
+            movers[0] = -board.getSideToMove();
+            a.visits.addAndGet(0, VIRTUAL_LOSS);
+
+            // Selection, then expansion of the leaf reached if it was already visited
+            while (!board.gameOver() && depth < MAX_TREE_PLIES) {
+                int state = a.state.get(node);
+                if (state != EXPANDED) {
+                    if (state != UNEXPANDED || a.visits.get(node) <= VIRTUAL_LOSS || !expand(a, node, board, moves)) break;
+                }
+                int child = select(a, node);
+                movers[depth + 1] = board.getSideToMove();
+                board.makeMove(a.move[child], board.getSideToMove());
+                node = child;
+                path[++depth] = node;
+                a.visits.addAndGet(node, VIRTUAL_LOSS);
+                if (state != EXPANDED) break;
+            }
+
+            int playoutPlies = 0;
+            int winner = 0;
+            if (board.gameOver()) {
+                winner = -board.getSideToMove();
+            } else {
+                for (; playoutPlies < PLAYOUT_PLIES; playoutPlies++) {
+                    int side = board.getSideToMove();
+                    if (board.isAttacked(board.getUnicornSquare(-side), side, board.getLastMoveLisere())) {
+                        winner = side;
+                        break;
+                    }
+                    Perft.generate(board, side, moves);
+                    board.makeMove(moves.get(rand.nextInt(moves.size())), side);
+                }
+            }
+            for (int i = 0; i < playoutPlies + depth; i++) board.unmakeMove();
+
+            for (int d = depth; d >= 0; d--) {
+                a.visits.addAndGet(path[d], 1 - VIRTUAL_LOSS);
+                a.rewards.addAndGet(path[d], winner == 0 ? 1 : winner == movers[d] ? 2 : 0);
+            }
+            playouts.increment();
+        }
+    }
+
+    /** UCT: the child with the best mean reward plus exploration bonus; unvisited children first */
+    private int select(Arena a, int node) {
+        int first = a.firstChild[node];
+        double logParent = Math.log(Math.max(1, a.visits.get(node)));
+        int best = first;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < first + a.childCount[node]; c++) {
+            int visits = a.visits.get(c);
+            if (visits == 0) return c;
+            double score = a.rewards.get(c) / (2.0 * visits) + EXPLORATION * Math.sqrt(logParent / visits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Creates the children of node, if no other thread is doing it and the arena has room.
+     * @return whether node now has children
+     */
+    private boolean expand(Arena a, int node, IEscampeBoard board, MoveList moves) {
+        if (!a.state.compareAndSet(node, UNEXPANDED, EXPANDING)) return false;
+        Perft.generate(board, board.getSideToMove(), moves);
+        // the children are reserved only if they fit: size never goes past capacity
+        int first;
+        do {
+            first = size.get();
+            if (first + moves.size() > capacity) {
+                // full: the node stays a leaf
+                a.state.set(node, UNEXPANDED);
+                return false;
+            }
+        } while (!size.compareAndSet(first, first + moves.size()));
+        for (int i = 0; i < moves.size(); i++) initNode(a, first + i, moves.get(i));
+        a.firstChild[node] = first;
+        a.childCount[node] = moves.size();
+        // volatile write: the children are visible to any thread that sees the node expanded
+        a.state.set(node, EXPANDED);
+        return true;
+    }
+
+    private static void initNode(Arena a, int node, int move) {
+        a.move[node] = move;
+        a.firstChild[node] = -1;
+        a.childCount[node] = 0;
+        a.visits.set(node, 0);
+        a.rewards.set(node, 0);
+        a.state.set(node, UNEXPANDED);
+    }
+
+    private int childWithMove(int node, int move) {
+        if (arena.state.get(node) != EXPANDED) return -1;
+        for (int c = arena.firstChild[node]; c < arena.firstChild[node] + arena.childCount[node]; c++) {
+            if (arena.move[c] == move) return c;
+        }
+        return -1;
+    }
+
+    /** copies the subtree of newRoot to the spare arena, breadth first, and swaps the arenas */
+    private void keepSubtree(int newRoot) {
+        Arena from = arena;
+        Arena to = spare;
+        copiedFrom[0] = newRoot;
+        copyNode(from, newRoot, to, 0);
+        int next = 1;
+        for (int i = 0; i < next; i++) {
+            int old = copiedFrom[i];
+            if (from.state.get(old) != EXPANDED) {
+                to.state.set(i, UNEXPANDED);
+                continue;
+            }
+            int count = from.childCount[old];
+            for (int k = 0; k < count; k++) {
+                copiedFrom[next + k] = from.firstChild[old] + k;
+                copyNode(from, from.firstChild[old] + k, to, next + k);
+            }
+            to.firstChild[i] = next;
+            to.childCount[i] = count;
+            to.state.set(i, EXPANDED);
+            next += count;
+        }
+        size.set(next);
+        spare = from;
+        arena = to;
+    }
+
+    private static void copyNode(Arena from, int old, Arena to, int node) {
+        to.move[node] = from.move[old];
+        to.firstChild[node] = -1;
+        to.childCount[node] = 0;
+        to.visits.set(node, from.visits.get(old));
+        to.rewards.set(node, from.rewards.get(old));
+        to.state.set(node, UNEXPANDED);
+    }
+}
@@ -0,0 +1,136 @@
+package escampe;
+
+/**
+ * Codage d'un coup dans un int, pour que la recherche ne manipule jamais de chaînes.
+ *
+ * Coup normal : case de départ sur les bits 0-5, case d'arrivée sur les bits 6-11
+ * (case = ligne*6 + colonne). Passe ("E") : TYPE_PASS.
+ * Placement initial : TYPE_PLACEMENT, bande sur le bit 16 (0 = lignes 1-2, 1 = lignes 5-6),
+ * masque des 5 paladins sur les bits 4-15 et index de la licorne (0 à 11) sur les bits 0-3,
+ * relatifs à la bande. L'ordre des paladins dans la chaîne d'origine n'est pas conservé.
+ */
+final class Move {
+    /** coup invalide ; "A1-A1" ne peut jamais être joué */
+    static final int NONE = 0;
+
+    private static final int TYPE_SHIFT = 20;
+    private static final int TYPE_REGULAR = 0;
+    private static final int TYPE_PASS = 1;
+    private static final int TYPE_PLACEMENT = 2;
+
+    static final int PASS = TYPE_PASS << TYPE_SHIFT;
+
+    private static final long BAND_MASK = (1L << 12) - 1;
+
+    private Move() {
+    }
+
+    static int regular(int from, int to) {
+        return from | (to << 6);
+    }
+
+    static int from(int move) {
+        return move & 63;
+    }
+
+    static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    static boolean isRegular(int move) {
+        return (move >>> TYPE_SHIFT) == TYPE_REGULAR && from(move) != to(move);
+    }
+
+    static boolean isPass(int move) {
+        return move == PASS;
+    }
+
+    static boolean isPlacement(int move) {
+        return (move >>> TYPE_SHIFT) == TYPE_PLACEMENT;
+    }
+
+    /**
+     * @param unicorn case de la licorne
+     * @param paladins masque des cases des paladins, sur les mêmes deux lignes que la licorne
+     * @return le coup, ou NONE si les pièces ne tiennent pas sur une bande de deux lignes
+     */
+    static int placement(int unicorn, long paladins) {
+        int band = unicorn >= 24 ? 1 : 0;
+        int base = band * 24;
+        long relative = paladins >>> base;
+        if (unicorn < base || unicorn >= base + 12 || (paladins & ~(BAND_MASK << base)) != 0
+                || (relative & (1L << (unicorn - base))) != 0 || Long.bitCount(relative) != 5) {
+            return NONE;
+        }
+        return (TYPE_PLACEMENT << TYPE_SHIFT) | (band << 16) | ((int) relative << 4) | (unicorn - base);
+    }
+
+    private static int placementBase(int move) {
+        return ((move >>> 16) & 1) * 24;
+    }
+
+    static int placementUnicorn(int move) {
+        return placementBase(move) + (move & 15);
+    }
+
+    static long placementPaladins(int move) {
+        return ((long) (move >>> 4) & BAND_MASK) << placementBase(move);
+    }
+
+    /** les six cases occupées par un placement */
+    static long placementSquares(int move) {
+        return placementPaladins(move) | (1L << placementUnicorn(move));
+    }
+
+    /** @return le coup codé, ou NONE si la chaîne est mal formée */
+    static int parse(String move) {
+        if (move.equals("E")) return PASS;
+
+        if (move.indexOf('/') >= 0) {
+            String[] parts = move.split("/");
+            if (parts.length != 6) return NONE;
+            int unicorn = parseSquare(parts[0]);
+            if (unicorn < 0) return NONE;
+            long paladins = 0L;
+            for (int i = 1; i < 6; i++) {
+                int sq = parseSquare(parts[i]);
+                if (sq < 0) return NONE;
+                paladins |= 1L << sq;
+            }
+            return placement(unicorn, paladins);
+        }
+
+        int dash = move.indexOf('-');
+        if (dash < 0) return NONE;
+        int from = parseSquare(move.substring(0, dash));
+        int to = parseSquare(move.substring(dash + 1));
+        if (from < 0 || to < 0 || from == to) return NONE;
+        return regular(from, to);
+    }
+
+    /** @return la case "A1".."F6" sous forme ligne*6 + colonne, -1 si invalide */
+    static int parseSquare(String pos) {
+        if (pos.length() != 2) return -1;
+        int col = pos.charAt(0) - 'A';
+        int row = pos.charAt(1) - '1';
+        return (row >= 0 && row < 6 && col >= 0 && col < 6) ? row * 6 + col : -1;
+    }
+
+    static String squareToString(int sq) {
+        return (char) ('A' + sq % 6) + "" + (sq / 6 + 1);
+    }
+
+    static String toString(int move) {
+        if (isPass(move)) return "E";
+        if (isPlacement(move)) {
+            StringBuilder sb = new StringBuilder(squareToString(placementUnicorn(move)));
+            long paladins = placementPaladins(move);
+            while (paladins != 0) {
+                sb.append('/').append(squareToString(Long.numberOfTrailingZeros(paladins)));
+                paladins &= paladins - 1;
+            }
+            return sb.toString();
+        }
+        return squareToString(from(move)) + "-" + squareToString(to(move));
+    }
+}
@@ -0,0 +1,38 @@
+package escampe;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event of one choixMouvement call, its duration being the time taken by the move */
+@Name("escampe.MoveChoice")
+@Label("Move Choice")
+@Category("Escampe")
+@Description("One move chosen by JoueurSuperFort")
+@StackTrace(false)
+final class MoveChoiceEvent extends Event {
+    @Label("Move Number")
+    int moveNumber;
+
+    @Label("Move")
+    String move;
+
+    @Label("Depth")
+    @Description("Depth of the last completed iteration, 0 for a move found without search")
+    int depth;
+
+    @Label("Score")
+    int score;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("TT Hit Rate")
+    double ttHitRate;
+
+    @Label("Effective Branching Factor")
+    double effectiveBranchingFactor;
+}
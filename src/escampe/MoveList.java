@@ -0,0 +1,61 @@
+package escampe;
+
+/**
+ * Liste de coups codés par {@link Move}, sur un tableau d'entiers réutilisable.
+ */
+final class MoveList {
+    // 6 pièces, au plus 16 cases d'arrivée chacune
+    static final int CAPACITY = 128;
+
+    private final int[] moves;
+    private int size;
+
+    MoveList() {
+        this(CAPACITY);
+    }
+
+    MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    void add(int move) {
+        moves[size++] = move;
+    }
+
+    int get(int i) {
+        return moves[i];
+    }
+
+    void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(Move.toString(moves[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,123 @@
+package escampe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Opening book: placements and first moves, keyed by the Zobrist hash of the position they are
+ * played from, with a weight and a score each.
+ *
+ * The file is mapped in memory and searched in place: no parsing, nothing loaded on the heap,
+ * a lookup is a binary search over the entries, sorted by key (several entries for the same key
+ * are the candidate moves of one position). Layout, big-endian:
+ *   header: magic "ESCB", version, entry count (3 ints)
+ *   entries: key (long), move (int), weight (int), score (int), 20 bytes each
+ * The file is written by {@link BookBuilder}.
+ */
+final class OpeningBook {
+    static final int MAGIC = 0x45534342;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int ENTRY_BYTES = 20;
+
+    // null for an empty book
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private OpeningBook(MappedByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /** the book of fileName, or an empty book if the file is missing or invalid */
+    static OpeningBook open(String fileName) {
+        Path path = Paths.get(fileName);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || channel.size() != HEADER_BYTES + (long) buffer.getInt(8) * ENTRY_BYTES) {
+                System.err.println("Livre d'ouvertures invalide, ignoré : " + fileName);
+                return new OpeningBook(null, 0);
+            }
+            return new OpeningBook(buffer, buffer.getInt(8));
+        } catch (NoSuchFileException e) {
+            return new OpeningBook(null, 0);
+        } catch (IOException e) {
+            System.err.println("Livre d'ouvertures illisible, ignoré : " + fileName + " (" + e + ")");
+            return new OpeningBook(null, 0);
+        }
+    }
+
+    /** number of entries */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return one of the moves stored for key, drawn with probability proportional to its
+     * weight, or Move.NONE if the book has none
+     */
+    int probe(long key, Random rand) {
+        int first = lowerBound(key);
+        int totalWeight = 0;
+        int end = first;
+        for (; end < count && key(end) == key; end++) totalWeight += weight(end);
+        if (totalWeight <= 0) return Move.NONE;
+
+        int pick = rand.nextInt(totalWeight);
+        for (int i = first; i < end; i++) {
+            pick -= weight(i);
+            if (pick < 0) return move(i);
+        }
+        return Move.NONE;
+    }
+
+    /** index of the first entry whose key is not below key (count if none) */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(mid) < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private long key(int i) {
+        return buffer.getLong(HEADER_BYTES + i * ENTRY_BYTES);
+    }
+
+    private int move(int i) {
+        return buffer.getInt(HEADER_BYTES + i * ENTRY_BYTES + 8);
+    }
+
+    private int weight(int i) {
+        return buffer.getInt(HEADER_BYTES + i * ENTRY_BYTES + 12);
+    }
+
+    /** writes a book file; the entries must be sorted by key (signed order) */
+    static void write(String fileName, long[] keys, int[] moves, int[] weights, int[] scores, int count) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                if (i > 0 && keys[i] < keys[i - 1]) throw new IllegalArgumentException("Entrées non triées");
+                out.writeLong(keys[i]);
+                out.writeInt(moves[i]);
+                out.writeInt(weights[i]);
+                out.writeInt(scores[i]);
+            }
+        }
+    }
+}
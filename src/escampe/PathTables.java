@@ -0,0 +1,99 @@
+package escampe;
+
+import java.util.Arrays;
+
+/**
+ * Tables de déplacement calculées une fois au chargement de la classe.
+ *
+ * Pour chaque case de départ et chaque nombre de pas k (1 à 3), on liste tous les chemins
+ * orthogonaux simples de exactement k pas : le masque des k-1 cases traversées et la case
+ * d'arrivée. Un déplacement est possible dès qu'un de ses chemins ne traverse aucune case
+ * occupée ; la règle sur la case d'arrivée est vérifiée à part par le plateau.
+ */
+final class PathTables {
+    static final int MAX_STEPS = 3;
+
+    // Chemins de la case sq en k pas : indices [PATH_START[sq][k], PATH_START[sq][k+1])
+    private static final int[][] PATH_START = new int[36][MAX_STEPS + 2];
+    private static final long[] PATH_INTER;
+    private static final byte[] PATH_DEST;
+
+    // Union des cases d'arrivée possibles depuis sq en k pas, plateau vide
+    private static final long[][] REACH = new long[36][MAX_STEPS + 1];
+
+    static {
+        long[] inter = new long[36 * 200];
+        byte[] dest = new byte[36 * 200];
+        int n = 0;
+        for (int sq = 0; sq < 36; sq++) {
+            for (int k = 1; k <= MAX_STEPS; k++) {
+                PATH_START[sq][k] = n;
+                n = enumerate(sq, k, 1L << sq, 0L, inter, dest, n);
+                for (int i = PATH_START[sq][k]; i < n; i++) REACH[sq][k] |= 1L << dest[i];
+            }
+            PATH_START[sq][MAX_STEPS + 1] = n;
+        }
+        PATH_INTER = Arrays.copyOf(inter, n);
+        PATH_DEST = Arrays.copyOf(dest, n);
+    }
+
+    private PathTables() {
+    }
+
+    private static int enumerate(int current, int stepsLeft, long visited, long crossed,
+                                 long[] inter, byte[] dest, int n) {
+        int r = current / 6, c = current % 6;
+        for (Direction dir : Direction.values()) {
+            int nr = r + dir.dr, nc = c + dir.dc;
+            if (nr < 0 || nr >= 6 || nc < 0 || nc >= 6) continue;
+            int next = nr * 6 + nc;
+            if ((visited & (1L << next)) != 0) continue;
+
+            if (stepsLeft == 1) {
+                inter[n] = crossed;
+                dest[n] = (byte) next;
+                n++;
+            } else {
+                n = enumerate(next, stepsLeft - 1, visited | (1L << next),
+                        crossed | (1L << next), inter, dest, n);
+            }
+        }
+        return n;
+    }
+
+    /** cases atteignables depuis from en exactement steps pas sans traverser de case occupée */
+    static long destinations(int from, int steps, long occupied) {
+        long dests = 0L;
+        for (int i = PATH_START[from][steps], end = PATH_START[from][steps + 1]; i < end; i++) {
+            if ((PATH_INTER[i] & occupied) == 0) dests |= 1L << PATH_DEST[i];
+        }
+        return dests;
+    }
+
+    /** vrai si un chemin libre de exactement steps pas relie from à to */
+    static boolean hasPath(int from, int to, int steps, long occupied) {
+        if ((REACH[from][steps] & (1L << to)) == 0) return false;
+        for (int i = PATH_START[from][steps], end = PATH_START[from][steps + 1]; i < end; i++) {
+            if (PATH_DEST[i] == to && (PATH_INTER[i] & occupied) == 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * vrai si une des cases de sources atteint target en exactement steps pas sans traverser de
+     * case occupée. Un chemin parcouru à l'envers traverse les mêmes cases : on part donc de
+     * target, et REACH écarte en une opération les cas où aucune source n'est à portée.
+     */
+    static boolean reachedFrom(int target, int steps, long sources, long occupied) {
+        if ((REACH[target][steps] & sources) == 0) return false;
+        for (int i = PATH_START[target][steps], end = PATH_START[target][steps + 1]; i < end; i++) {
+            if ((sources & (1L << PATH_DEST[i])) != 0 && (PATH_INTER[i] & occupied) == 0) return true;
+        }
+        return false;
+    }
+
+    /** cases d'arrivée possibles depuis from en steps pas, plateau vide */
+    static long reach(int from, int steps) {
+        return REACH[from][steps];
+    }
+}
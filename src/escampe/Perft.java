@@ -0,0 +1,164 @@
+package escampe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft : compte les feuilles de l'arbre des coups légaux à une profondeur donnée, pour vérifier
+ * le générateur de coups (les deux plateaux doivent donner les mêmes nombres) et mesurer sa vitesse.
+ *
+ * Un joueur sans coup passe ("E"), ce qui compte pour un coup. Une position où une licorne a été
+ * prise est terminale : elle compte comme feuille à la profondeur 0 et n'a pas de fils au-delà.
+ *
+ * Exemple : java -cp bin escampe.Perft plateau.txt blanc -1 5 --divide --parallel
+ */
+public class Perft {
+    private final MoveList[] moveStack;
+    // Au dernier niveau, on compte les coups générés sans les jouer
+    private final boolean bulk;
+
+    public Perft(int maxDepth, boolean bulk) {
+        this.bulk = bulk;
+        moveStack = new MoveList[maxDepth + 1];
+        for (int i = 0; i < moveStack.length; i++) moveStack[i] = new MoveList();
+    }
+
+    /** nombre de feuilles à depth coups de la position, side ayant le trait */
+    public long perft(IEscampeBoard board, int side, int depth) {
+        return perft(board, side, depth, 0);
+    }
+
+    private long perft(IEscampeBoard board, int side, int depth, int ply) {
+        if (depth == 0) return 1;
+        if (board.gameOver()) return 0;
+
+        MoveList moves = moveStack[ply];
+        generate(board, side, moves);
+        if (bulk && depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i), side);
+            nodes += perft(board, -side, depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /** coups possibles, ou la passe si le joueur est bloqué */
+    static void generate(IEscampeBoard board, int side, MoveList moves) {
+        board.possiblesMoves(side, moves);
+        if (moves.isEmpty()) moves.add(Move.PASS);
+    }
+
+    /**
+     * perft détaillé par coup racine ("divide") : counts[i] reçoit le nombre de feuilles sous
+     * rootMoves.get(i). En mode parallèle, chaque coup racine est une tâche fork-join avec sa
+     * propre copie du plateau.
+     * @return le nombre total de feuilles
+     */
+    public static long divide(IEscampeBoard board, int side, int depth, boolean bulk, ForkJoinPool pool,
+                              MoveList rootMoves, long[] counts) {
+        rootMoves.clear();
+        if (depth == 0) return 1;
+        if (board.gameOver()) return 0;
+        generate(board, side, rootMoves);
+
+        if (pool == null) {
+            Perft perft = new Perft(depth, bulk);
+            for (int i = 0; i < rootMoves.size(); i++) {
+                board.makeMove(rootMoves.get(i), side);
+                counts[i] = perft.perft(board, -side, depth - 1);
+                board.unmakeMove();
+            }
+        } else {
+            List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < rootMoves.size(); i++) {
+                tasks.add(pool.submit(new RootTask(board.clone(), rootMoves.get(i), side, depth, bulk)));
+            }
+            for (int i = 0; i < tasks.size(); i++) counts[i] = tasks.get(i).join();
+        }
+
+        long total = 0;
+        for (int i = 0; i < rootMoves.size(); i++) total += counts[i];
+        return total;
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final IEscampeBoard board;
+        private final int move, side, depth;
+        private final boolean bulk;
+
+        RootTask(IEscampeBoard board, int move, int side, int depth, boolean bulk) {
+            this.board = board;
+            this.move = move;
+            this.side = side;
+            this.depth = depth;
+            this.bulk = bulk;
+        }
+
+        @Override
+        protected Long compute() {
+            board.makeMove(move, side);
+            return new Perft(depth, bulk).perft(board, -side, depth - 1);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Perft Usage: FichierPlateau noir|blanc Liseré(-1 si libre) Profondeur"
+                    + " [--divide] [--parallel[=threads]] [--no-bulk] [--board=bitboard|reference]");
+            System.exit(1);
+        }
+
+        int side = Couleur.fromString(args[1]);
+        int lisere = Integer.parseInt(args[2]);
+        int depth = Integer.parseInt(args[3]);
+        boolean divide = false, bulk = true;
+        int threads = 0;
+        String engine = "bitboard";
+        for (int i = 4; i < args.length; i++) {
+            String opt = args[i];
+            if (opt.equals("--divide")) divide = true;
+            else if (opt.equals("--no-bulk")) bulk = false;
+            else if (opt.equals("--parallel")) threads = Runtime.getRuntime().availableProcessors();
+            else if (opt.startsWith("--parallel=")) threads = Integer.parseInt(opt.substring(11));
+            else if (opt.startsWith("--board=")) engine = opt.substring(8);
+            else throw new IllegalArgumentException("Option inconnue : " + opt);
+        }
+
+        IEscampeBoard board = JoueurSuperFort.newBoard(engine);
+        board.setFromFile(args[0]);
+        board.setSideToMove(side);
+        board.setLastMoveLisere(lisere);
+        board.printBoard();
+        System.out.println("Trait : " + Couleur.toString(side) + ", liseré imposé : " + lisere
+                + ", plateau : " + engine + (threads > 0 ? ", " + threads + " threads" : ""));
+
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        MoveList rootMoves = new MoveList();
+        long[] counts = new long[MoveList.CAPACITY];
+        try {
+            for (int d = 1; d <= depth; d++) {
+                long start = System.nanoTime();
+                long nodes = divide(board, side, d, bulk, pool, rootMoves, counts);
+                long elapsed = Math.max(1, System.nanoTime() - start);
+                System.out.printf("perft(%d) = %d  %.1f ms  %.0f noeuds/s%n",
+                        d, nodes, elapsed / 1e6, nodes * 1e9 / elapsed);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+
+        if (divide) {
+            for (int i = 0; i < rootMoves.size(); i++) {
+                System.out.println(Move.toString(rootMoves.get(i)) + " : " + counts[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package escampe;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores initial placements with a fixed-depth search, spread over several threads.
+ *
+ * Workers take candidates in order from a shared counter, each on its own board and
+ * {@link Searcher}, with a shared transposition table. The best score found so far is used as
+ * the search bound of the next candidates, so that a placement which cannot beat it fails low
+ * quickly. No new candidate is started once the deadline has passed, and the searches still
+ * running then are stopped and their candidates dropped.
+ */
+class PlacementSearch {
+    private final int color;
+    private final TranspositionTable tt;
+    private final int depth;
+    private final int threads;
+
+    // Best result of the current search; the bound is read by the workers without locking
+    private volatile int bestScore;
+    private int bestMove;
+    private int searched;
+
+    PlacementSearch(int color, TranspositionTable tt, int depth, int threads) {
+        this.color = color;
+        this.tt = tt;
+        this.depth = depth;
+        this.threads = threads;
+    }
+
+    /**
+     * Every legal placement of player on board, each exactly once: a unicorn square and 5 of
+     * the 11 other squares of an allowed two-row band (12 x C(11,5) = 5544 per band).
+     */
+    static MoveList legalPlacements(IEscampeBoard board, int player) {
+        MoveList placements = new MoveList(2 * 12 * 462);
+        for (int base = 0; base <= 24; base += 24) {
+            // all 6-square subsets of the band, then the unicorn among the 6
+            for (int subset = 0; subset < 1 << 12; subset++) {
+                if (Integer.bitCount(subset) != 6) continue;
+                long squares = (long) subset << base;
+                for (long u = squares; u != 0; u &= u - 1) {
+                    int unicorn = Long.numberOfTrailingZeros(u);
+                    int move = Move.placement(unicorn, squares & ~(1L << unicorn));
+                    if (board.isValidMove(move, player)) placements.add(move);
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * @param candidates placements of player, most promising first; entries equal to Move.NONE are skipped
+     * @param deadline System.currentTimeMillis() after which the search stops; a candidate whose
+     *                 search is cut by it is not counted
+     * @return the best placement for player (from color's point of view: highest score if player
+     * is color, lowest otherwise), or Move.NONE if none was searched
+     */
+    int search(IEscampeBoard board, int player, MoveList candidates, long deadline) {
+        boolean maximize = player == color;
+        bestScore = maximize ? -Searcher.INFINITY : Searcher.INFINITY;
+        bestMove = Move.NONE;
+        searched = 0;
+
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                IEscampeBoard workerBoard = board.clone();
+                Searcher searcher = new Searcher(color, tt);
+                searcher.setDeadline(deadline);
+                workers[t] = pool.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < candidates.size()
+                            && System.currentTimeMillis() < deadline) {
+                        int move = candidates.get(i);
+                        if (move == Move.NONE) continue;
+                        workerBoard.makeMove(move, player);
+                        int bound = bestScore;
+                        int score = maximize
+                                ? searcher.search(workerBoard, depth, bound, Searcher.INFINITY)
+                                : searcher.search(workerBoard, depth, -Searcher.INFINITY, bound);
+                        workerBoard.unmakeMove();
+                        // the score of an interrupted search means nothing
+                        if (searcher.isStopped()) break;
+                        offer(move, score, maximize);
+                    }
+                });
+            }
+            for (Future<?> worker : workers) worker.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Placement search failed", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return bestMove;
+    }
+
+    private synchronized void offer(int move, int score, boolean maximize) {
+        searched++;
+        // keep the first result even when it equals the initial bound (lost or blocked position)
+        if (bestMove == Move.NONE || (maximize ? score > bestScore : score < bestScore)) {
+            bestScore = score;
+            bestMove = move;
+        }
+    }
+
+    /** score of the last search's best placement, from color's point of view */
+    int bestScore() {
+        return bestScore;
+    }
+
+    /** number of candidates actually searched by the last search */
+    synchronized int searched() {
+        return searched;
+    }
+}
@@ -9,7 +9,15 @@ public class Position {
         return row >= 0 && row < 6 && col >= 0 && col < 6;
     }
 
-    public boolean equals(Position p) {
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Position)) return false;
+        Position p = (Position) o;
         return this.row == p.row && this.col == p.col;
     }
+
+    @Override
+    public int hashCode() {
+        return row * 6 + col;
+    }
 }
@@ -0,0 +1,91 @@
+package escampe;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Nodes searched by an iterative deepening to a fixed depth on a set of positions, single
+ * threaded and with a fresh transposition table for each position: the measure used to compare
+ * versions of the search, independent of the speed of the machine.
+ *
+ * With --millis=n, each position is instead searched for n ms (the depth becoming a maximum),
+ * and the depth of the last completed iteration is reported: the depth gained at equal time.
+ *
+ * Each position file is in the format of setFromFile, its first line giving the side to move
+ * and the lisere imposed on it, e.g. "% blanc -1".
+ *
+ * Exemple : java -cp bin escampe.SearchBench 7 positions/*.txt
+ *           java -Descampe.lmr=false -cp bin escampe.SearchBench 30 positions/*.txt --millis=1000
+ */
+public class SearchBench {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("SearchBench Usage: Profondeur FichierPlateau... [--millis=n] [--board=bitboard|reference]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String engine = "bitboard";
+        long millis = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--board=")) engine = arg.substring(8);
+            else if (arg.startsWith("--millis=")) millis = Long.parseLong(arg.substring(9));
+        }
+
+        long totalNodes = 0;
+        long totalMillis = 0;
+        int totalDepth = 0;
+        int positions = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--")) continue;
+            IEscampeBoard board = load(args[i], engine);
+            int side = board.getSideToMove();
+
+            TranspositionTable tt = new TranspositionTable(Integer.getInteger("escampe.ttMegabytes", 64));
+            EvalCache evalCache = EvalCache.create(Integer.getInteger("escampe.evalCacheMegabytes", 8));
+            Searcher searcher = new Searcher(side, tt, evalCache);
+            MoveList moves = searcher.moves(0);
+            Perft.generate(board, side, moves);
+
+            long start = System.currentTimeMillis();
+            searcher.setDeadline(millis > 0 ? start + millis : Long.MAX_VALUE);
+            int value = Searcher.NO_VALUE;
+            int bestMove = moves.get(0);
+            int reached = 0;
+            for (int d = 1; d <= depth; d++) {
+                int iterationValue = searcher.searchIteration(board, moves, d, value);
+                if (searcher.isStopped()) break;
+                value = iterationValue;
+                bestMove = moves.get(0);
+                reached = d;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+
+            totalNodes += searcher.nodes();
+            totalMillis += elapsed;
+            totalDepth += reached;
+            positions++;
+            System.out.printf("%s : %s, score %d, profondeur %d, %d noeuds en %d ms%s%n",
+                    args[i], Move.toString(bestMove), value, reached, searcher.nodes(), elapsed,
+                    evalCache == null ? "" : ", " + evalCache.stats());
+        }
+        System.out.printf("Total profondeur %d : %d noeuds en %d ms, profondeur moyenne %.2f%n",
+                depth, totalNodes, totalMillis, (double) totalDepth / Math.max(1, positions));
+    }
+
+    /** reads a position file, its side to move and lisere from the "% side lisere" header */
+    static IEscampeBoard load(String fileName, String engine) {
+        IEscampeBoard board = JoueurSuperFort.newBoard(engine);
+        board.setFromFile(fileName);
+        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            String[] header = br.readLine().substring(1).trim().split("\\s+");
+            board.setSideToMove(Couleur.fromString(header[0]));
+            board.setLastMoveLisere(Integer.parseInt(header[1]));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("En-tête \"% noir|blanc liseré\" attendu dans " + fileName, e);
+        }
+        return board;
+    }
+}
@@ -0,0 +1,33 @@
+package escampe;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event of one iteration of the iterative deepening, its duration being the iteration's */
+@Name("escampe.SearchIteration")
+@Label("Search Iteration")
+@Category("Escampe")
+@Description("One iteration of the iterative deepening of JoueurSuperFort")
+@StackTrace(false)
+final class SearchIterationEvent extends Event {
+    @Label("Depth")
+    int depth;
+
+    @Label("Score")
+    int score;
+
+    @Label("Best Move")
+    String bestMove;
+
+    @Label("Nodes")
+    @Description("Nodes of this iteration, all threads together")
+    long nodes;
+
+    @Label("Completed")
+    @Description("False when the deadline cut the iteration, whose result is then dropped")
+    boolean completed;
+}
@@ -0,0 +1,63 @@
+package escampe;
+
+/**
+ * Counters of the search of one thread: each Searcher owns one and is the only one to write it,
+ * with plain increments, so that threads never contend on them. Other threads (the logs, JMX)
+ * read them without synchronization, the values possibly lagging a little, or add them up into
+ * a snapshot with add().
+ *
+ * Move generation and evaluation times are sampled: one call out of TIMING_SAMPLE is timed, its
+ * time counted TIMING_SAMPLE times, which keeps System.nanoTime() out of most nodes.
+ */
+final class SearchMetrics {
+    static final int TIMING_SAMPLE = 64;
+    static final int TIMING_MASK = TIMING_SAMPLE - 1;
+    // Beta cutoffs are profiled by the index of the move producing them: 0, 1, 2, 3 and more
+    static final int CUTOFF_INDEXES = 4;
+
+    long nodes;
+    long quiescenceNodes;
+    long evaluations;
+    long evaluationNanos;
+    long moveGenerations;
+    long moveGenerationNanos;
+    long cutoffs;
+    final long[] cutoffsAtMove = new long[CUTOFF_INDEXES];
+
+    void reset() {
+        nodes = 0;
+        quiescenceNodes = 0;
+        evaluations = 0;
+        evaluationNanos = 0;
+        moveGenerations = 0;
+        moveGenerationNanos = 0;
+        cutoffs = 0;
+        for (int i = 0; i < CUTOFF_INDEXES; i++) cutoffsAtMove[i] = 0;
+    }
+
+    /** adds the counters of other to these */
+    void add(SearchMetrics other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        evaluations += other.evaluations;
+        evaluationNanos += other.evaluationNanos;
+        moveGenerations += other.moveGenerations;
+        moveGenerationNanos += other.moveGenerationNanos;
+        cutoffs += other.cutoffs;
+        for (int i = 0; i < CUTOFF_INDEXES; i++) cutoffsAtMove[i] += other.cutoffsAtMove[i];
+    }
+
+    /** share of the beta cutoffs produced by the first move tried */
+    double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0.0 : (double) cutoffsAtMove[0] / cutoffs;
+    }
+
+    /** move generation and evaluation times and the cutoff profile, for the logs */
+    @Override
+    public String toString() {
+        return String.format("génération %d ms (%d appels), évaluation %d ms (%d appels), %d noeuds de quiescence, "
+                        + "coupures aux coups 1/2/3/4+ : %d/%d/%d/%d",
+                moveGenerationNanos / 1000000, moveGenerations, evaluationNanos / 1000000, evaluations, quiescenceNodes,
+                cutoffsAtMove[0], cutoffsAtMove[1], cutoffsAtMove[2], cutoffsAtMove[3]);
+    }
+}
@@ -0,0 +1,178 @@
+package escampe;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Search metrics of one player, readable from code (the getters, current()) and through JMX,
+ * where it is registered as escampe:type=Search,name=... while the game lasts.
+ *
+ * The counters stay in the SearchMetrics of each searcher (main thread and Lazy SMP helpers),
+ * so the search never writes here: they are added up on demand, and into the game totals by
+ * endMove(), which also keeps the figures of the last move.
+ */
+class SearchMonitor implements SearchMonitorMXBean {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final Searcher searcher;
+    private final LazySmp smp;
+    private final TranspositionTable tt;
+    // null without evaluation cache
+    private final EvalCache evalCache;
+    private ObjectName name;
+
+    // Totals of the game, added by endMove()
+    private final SearchMetrics total = new SearchMetrics();
+
+    // Last move, written by the game thread, read by JMX
+    private volatile int moves;
+    private volatile long lastNodes;
+    private volatile long nodesPerSecond;
+    private volatile int depth;
+    private volatile int score;
+    private volatile double effectiveBranchingFactor;
+
+    SearchMonitor(Searcher searcher, LazySmp smp, TranspositionTable tt, EvalCache evalCache) {
+        this.searcher = searcher;
+        this.smp = smp;
+        this.tt = tt;
+        this.evalCache = evalCache;
+    }
+
+    /** registers the monitor on the platform MBean server, under player and a unique number */
+    void register(String player) {
+        try {
+            name = new ObjectName("escampe:type=Search,name=" + player + "-" + INSTANCES.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Métriques de recherche non publiées en JMX : " + e);
+            name = null;
+        }
+    }
+
+    void unregister() {
+        if (name == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // already gone
+        }
+        name = null;
+    }
+
+    /** counters of the current (or last) search, all threads together */
+    SearchMetrics current() {
+        SearchMetrics sum = new SearchMetrics();
+        sum.add(searcher.metrics());
+        smp.addMetrics(sum);
+        return sum;
+    }
+
+    /** end of a search: its counters go to the totals, its results become the last move's */
+    void endMove(int depth, int score, long elapsedMillis, double effectiveBranchingFactor) {
+        SearchMetrics search = current();
+        synchronized (total) {
+            total.add(search);
+        }
+        lastNodes = search.nodes;
+        nodesPerSecond = search.nodes * 1000 / Math.max(1, elapsedMillis);
+        this.depth = depth;
+        this.score = score;
+        this.effectiveBranchingFactor = effectiveBranchingFactor;
+        moves++;
+    }
+
+    @Override
+    public int getMoves() {
+        return moves;
+    }
+
+    @Override
+    public long getNodes() {
+        return current().nodes;
+    }
+
+    @Override
+    public long getTotalNodes() {
+        synchronized (total) {
+            return total.nodes;
+        }
+    }
+
+    /** nodes of the last search, as ended by endMove() */
+    long lastNodes() {
+        return lastNodes;
+    }
+
+    @Override
+    public long getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public double getEffectiveBranchingFactor() {
+        return effectiveBranchingFactor;
+    }
+
+    @Override
+    public double getTtHitRate() {
+        return tt.hitRate();
+    }
+
+    @Override
+    public double getEvalCacheHitRate() {
+        return evalCache == null ? 0.0 : evalCache.hitRate();
+    }
+
+    @Override
+    public double getFirstMoveCutoffRate() {
+        return current().firstMoveCutoffRate();
+    }
+
+    @Override
+    public long[] getCutoffsByMoveIndex() {
+        synchronized (total) {
+            return total.cutoffsAtMove.clone();
+        }
+    }
+
+    @Override
+    public long getTotalQuiescenceNodes() {
+        synchronized (total) {
+            return total.quiescenceNodes;
+        }
+    }
+
+    @Override
+    public long getTotalEvaluations() {
+        synchronized (total) {
+            return total.evaluations;
+        }
+    }
+
+    @Override
+    public long getMoveGenerationMillis() {
+        synchronized (total) {
+            return total.moveGenerationNanos / 1000000;
+        }
+    }
+
+    @Override
+    public long getEvaluationMillis() {
+        synchronized (total) {
+            return total.evaluationNanos / 1000000;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package escampe;
+
+/**
+ * Search metrics of a player, as seen through JMX (escampe:type=Search,name=...): those of the
+ * current or last search, and totals since the start of the game. See {@link SearchMonitor}.
+ */
+public interface SearchMonitorMXBean {
+    /** moves searched since the start of the game */
+    int getMoves();
+
+    /** nodes of the current search, or of the last one, all threads together */
+    long getNodes();
+
+    long getTotalNodes();
+
+    /** nodes per second of the last search */
+    long getNodesPerSecond();
+
+    /** depth of the last completed iteration of the last search */
+    int getDepth();
+
+    int getScore();
+
+    /** nodes of the last iteration over nodes of the one before */
+    double getEffectiveBranchingFactor();
+
+    /** share of the transposition table probes that hit, in the current or last search */
+    double getTtHitRate();
+
+    double getEvalCacheHitRate();
+
+    /** share of the beta cutoffs produced by the first move tried, in the current or last search */
+    double getFirstMoveCutoffRate();
+
+    /** beta cutoffs by index of the move producing them (1st, 2nd, 3rd, later), since the start of the game */
+    long[] getCutoffsByMoveIndex();
+
+    long getTotalQuiescenceNodes();
+
+    long getTotalEvaluations();
+
+    /** estimated time spent generating moves since the start of the game, all threads together */
+    long getMoveGenerationMillis();
+
+    /** estimated time spent evaluating positions since the start of the game, all threads together */
+    long getEvaluationMillis();
+}
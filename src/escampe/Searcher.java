@@ -0,0 +1,632 @@
+package escampe;
+
+import java.util.*;
+
+/**
+ * Alpha-beta search and evaluation, always from the point of view of {@code color}.
+ * Holds the per-thread state (move lists for each ply, evaluation scratch arrays), so each
+ * thread searching in parallel owns its Searcher and its board; the transposition table
+ * is the only thing they share.
+ */
+class Searcher {
+    private final int color;
+    private final TranspositionTable tt;
+    // Leaf evaluations, shared like the table; null for none
+    private final EvalCache evalCache;
+    // Probe result, consumed before the recursion so one holder is enough
+    private final TTEntry entry = new TTEntry();
+
+    // Preallocated move lists, one per search ply
+    private final MoveList[] moveStack = new MoveList[IEscampeBoard.MAX_PLY];
+    // Evaluation scratch: the paladin squares of each side, a distance map per unicorn, BFS queue
+    private final int[][] evalPaladins = new int[2][6];
+    private final int[][] unicornDistances = new int[2][36];
+    private final int[] bfsQueue = new int[36];
+
+    // Search values lie in -INFINITY..INFINITY, so that negating one never overflows. A unicorn
+    // captured at ply p is worth WIN - p to the capturing side and LOSS + p to the other, so that
+    // the quickest capture is preferred; static evaluations stay strictly between the two ranges
+    static final int INFINITY = Integer.MAX_VALUE;
+    static final int WIN = Integer.MAX_VALUE - 1;
+    static final int LOSS = -WIN;
+    private static final int WIN_BOUND = WIN - IEscampeBoard.MAX_PLY;
+    // Value of "no previous iteration" for searchIteration
+    static final int NO_VALUE = Integer.MIN_VALUE;
+    // Half-width of the first aspiration window, via -Descampe.aspiration=...
+    private static final int ASPIRATION_WINDOW = Integer.getInteger("escampe.aspiration", 40);
+
+    // Plies of evasions the quiescence may add below the horizon, via -Descampe.qplies=...
+    private static final int QUIESCENCE_PLIES = Integer.getInteger("escampe.qplies", 6);
+    // Whether the current path already went through a threat extension
+    private boolean extended;
+
+    // Late move reductions: from the LMR_MOVES-th move of a node at least LMR_DEPTH deep, quiet
+    // moves are searched base + ln(depth) * ln(move index) / divisor plies shallower, via
+    // -Descampe.lmr=false, -Descampe.lmrBase=..., -Descampe.lmrDivisor=..., -Descampe.lmrMoves=...
+    private static final boolean LMR = Boolean.parseBoolean(System.getProperty("escampe.lmr", "true"));
+    private static final int LMR_DEPTH = 3;
+    private static final int LMR_MOVES = Integer.getInteger("escampe.lmrMoves", 3);
+    private static final int[][] REDUCTIONS = reductions(
+            Double.parseDouble(System.getProperty("escampe.lmrBase", "1.0")),
+            Double.parseDouble(System.getProperty("escampe.lmrDivisor", "2.0")));
+    // Futility pruning: at depth d <= FUTILITY_MARGINS.length, quiet moves are skipped when the
+    // static evaluation plus FUTILITY_MARGINS[d - 1] cannot reach alpha, via
+    // -Descampe.futility=margin1,margin2,... (empty to disable)
+    private static final int[] FUTILITY_MARGINS = margins(System.getProperty("escampe.futility", "40,100"));
+
+    // Move ordering: ordering scores of each ply's moves, two killer moves per ply, and a history
+    // table indexed by the lisere constraint of the node (-1 to 3, shifted by 1) and the move
+    private static final int SCORE_TT_MOVE = 1 << 30;
+    private static final int SCORE_CAPTURE = 1 << 29;
+    private static final int SCORE_KILLER = 1 << 28;
+    private final int[][] orderScores = new int[IEscampeBoard.MAX_PLY][MoveList.CAPACITY];
+    private final int[][] killers = new int[IEscampeBoard.MAX_PLY][2];
+    private final int[][] history = new int[5][1 << 12];
+    // Nodes, cutoffs, evaluation and move generation counters since the last setDeadline
+    private final SearchMetrics metrics = new SearchMetrics();
+
+    // Hard deadline (System.currentTimeMillis()) checked every 1024 nodes; once it has passed,
+    // every node returns at once and the result of the interrupted search must be ignored
+    private volatile long deadline = Long.MAX_VALUE;
+    private boolean stopped;
+    // Set from another thread to end the search early, e.g. the main thread stopping its helpers
+    private volatile boolean stopRequested;
+
+    /** a searcher without evaluation cache */
+    Searcher(int color, TranspositionTable tt) {
+        this(color, tt, null);
+    }
+
+    Searcher(int color, TranspositionTable tt, EvalCache evalCache) {
+        this.color = color;
+        this.tt = tt;
+        this.evalCache = evalCache;
+        for (int i = 0; i < moveStack.length; i++) moveStack[i] = new MoveList();
+    }
+
+    /** move list reserved for the given ply, e.g. for the root moves at ply 0 */
+    MoveList moves(int ply) {
+        return moveStack[ply];
+    }
+
+    /** starts a new search that must stop at deadline (Long.MAX_VALUE for none) */
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+        stopRequested = false;
+        stopped = false;
+        metrics.reset();
+        // killers are tied to the previous position, history only fades
+        for (int[] k : killers) Arrays.fill(k, Move.NONE);
+        for (int[] h : history) {
+            for (int i = 0; i < h.length; i++) h[i] >>= 3;
+        }
+    }
+
+    /** forgets the move ordering history, so that the next search starts as on a new searcher */
+    void clearHistory() {
+        for (int[] h : history) Arrays.fill(h, 0);
+    }
+
+    /** moves the deadline of the current search, possibly running in another thread */
+    void setHardDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /** asks the search, possibly running in another thread, to stop within 1024 nodes */
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    /** whether the current search hit its deadline, making its values meaningless */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /** nodes visited since the last setDeadline */
+    long nodes() {
+        return metrics.nodes;
+    }
+
+    /** share of the beta cutoffs produced by the first move tried, since the last setDeadline */
+    double firstMoveCutoffRate() {
+        return metrics.firstMoveCutoffRate();
+    }
+
+    /** counters of this searcher since the last setDeadline, written by the searching thread */
+    SearchMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * One iteration of the iterative deepening at the root, with an aspiration window around the
+     * value of the previous iteration; each side of the window that fails is widened (4 times
+     * more each time) and the iteration searched again.
+     * @param previous value of the previous iteration, or NO_VALUE for a full window
+     * @return the value of the best move, now first in moves; meaningless if isStopped()
+     */
+    int searchIteration(IEscampeBoard board, MoveList moves, int depth, int previous) {
+        if (previous == NO_VALUE || isCapture(previous)) {
+            return searchRoot(board, moves, depth, -INFINITY, INFINITY);
+        }
+        long delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(previous - ASPIRATION_WINDOW, -INFINITY);
+        int beta = Math.min(previous + ASPIRATION_WINDOW, INFINITY);
+        while (true) {
+            int value = searchRoot(board, moves, depth, alpha, beta);
+            if (stopped) return value;
+
+            delta *= 4;
+            if (value <= alpha && alpha > -INFINITY) alpha = (int) Math.max(previous - delta, -INFINITY);
+            else if (value >= beta && beta < INFINITY) beta = (int) Math.min(previous + delta, INFINITY);
+            else return value;
+        }
+    }
+
+    /**
+     * Searches every move of moves, in order, to the given depth (the root move counts as one
+     * ply): the first with the window alpha..beta, the others with a null window, searched again
+     * when they beat alpha. The best move is moved first, the others keep their order.
+     * @return the best value (fail-soft: at most alpha if no move beats alpha), meaningless if isStopped()
+     */
+    int searchRoot(IEscampeBoard board, MoveList moves, int depth, int alpha, int beta) {
+        int bestValue = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i), color);
+            int value = i == 0 ? -negamax(board, depth - 1, 1, -beta, -alpha) : searchLate(board, depth - 1, 1, alpha, beta, 0);
+            board.unmakeMove();
+            if (stopped) return bestValue;
+
+            if (value > bestValue) {
+                bestValue = value;
+                bestIndex = i;
+            }
+            if (value > alpha) alpha = value;
+            if (alpha >= beta) break;
+        }
+
+        int best = moves.get(bestIndex);
+        for (int i = bestIndex; i > 0; i--) moves.set(i, moves.get(i - 1));
+        moves.set(0, best);
+        return bestValue;
+    }
+
+    /** negamax with alpha, beta and the value returned all seen from color, whoever is to move */
+    int search(IEscampeBoard board, int depth, int alpha, int beta) {
+        return board.getSideToMove() == color
+                ? negamax(board, depth, 0, alpha, beta)
+                : -negamax(board, depth, 0, -beta, -alpha);
+    }
+
+    /**
+     * Negamax alpha-beta with principal variation search.
+     * @return the value of board for the side to move
+     */
+    int negamax(IEscampeBoard board, int depth, int ply, int alpha, int beta) {
+        if ((++metrics.nodes & 1023) == 0 && (stopRequested || System.currentTimeMillis() >= deadline)) stopped = true;
+        if (stopped) return 0;
+
+        int sideToMove = board.getSideToMove();
+        // Our unicorn is attacked and pinned by the lisere rule on the last ply: one more ply, so
+        // that the answer is not cut by the horizon. At most one extension per path, or threats
+        // feed each other
+        if (depth == 1 && !extended && isPinnedThreat(board, sideToMove)) {
+            extended = true;
+            int value = negamax(board, depth + 1, ply, alpha, beta);
+            extended = false;
+            return value;
+        }
+
+        long zobrist = board.getHash();
+        int ttMove = Move.NONE;
+        if (tt.probe(zobrist, entry)) {
+            if (entry.depth >= depth) {
+                // use cached value
+                int cached = fromTable(entry.value, ply);
+                if (entry.flag == 0) return cached; // exact
+                if (entry.flag < 0 && cached <= alpha) return cached; // alpha-bound
+                if (entry.flag > 0 && cached >= beta)  return cached; // beta-bound
+            }
+            // too shallow to cut, but its best move is still the best guess
+            ttMove = entry.bestMove;
+        }
+
+        if (board.gameOver()) return gameOverValue(board, ply);
+        if (depth == 0) return quiesce(board, alpha, beta, ply, QUIESCENCE_PLIES);
+
+        int originalAlpha = alpha;
+        int bestValue = -INFINITY;
+        int bestMove = Move.NONE;
+        MoveList moves = moveStack[ply];
+        generateMoves(board, sideToMove, moves); // a blocked player passes ("E")
+        int lisere = board.getLastMoveLisere();
+        orderMoves(board, moves, ply, ttMove, sideToMove);
+
+        // When our unicorn is attacked every move is an evasion, never reduced nor pruned
+        boolean evading = isThreatened(board, sideToMove);
+        int enemyUnicorn = board.getUnicornSquare(-sideToMove);
+        boolean futile = !evading && depth <= FUTILITY_MARGINS.length && !isCapture(alpha)
+                && staticValue(board, sideToMove) + FUTILITY_MARGINS[depth - 1] <= alpha;
+        for (int i = 0; i < moves.size(); i++) {
+            pickNext(moves, ply, i);
+            int move = moves.get(i);
+            board.makeMove(move, sideToMove);
+            // Quiet: neither a capture nor an evasion, and leaving the enemy unicorn unattacked
+            boolean quiet = i > 0 && !evading && !(Move.isRegular(move) && Move.to(move) == enemyUnicorn)
+                    && (futile || LMR && depth >= LMR_DEPTH && i >= LMR_MOVES)
+                    && !isThreatened(board, -sideToMove);
+            if (quiet && futile) {
+                board.unmakeMove();
+                continue;
+            }
+            int score;
+            if (i == 0) {
+                score = -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                int reduction = quiet ? Math.min(REDUCTIONS[Math.min(depth, 63)][i], depth - 1) : 0;
+                score = searchLate(board, depth - 1, ply + 1, alpha, beta, reduction);
+            }
+            board.unmakeMove();
+            if (score > bestValue || bestMove == Move.NONE) {
+                bestValue = score;
+                bestMove = move;
+            }
+
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) {
+                recordCutoff(move, i, ply, depth, lisere);
+                break;
+            }
+        }
+
+        // An interrupted subtree gives no usable value
+        if (stopped) return bestValue;
+
+        // Store in table
+        int flag;
+        if (bestValue <= originalAlpha) flag = -1; // upper bound
+        else if (bestValue >= beta)     flag = 1;  // lower bound
+        else                            flag = 0;  // exact
+        tt.store(zobrist, depth, toTable(bestValue, ply), flag, bestMove);
+
+        return bestValue;
+    }
+
+    /**
+     * Value, for the side that just moved, of a move after the first one: a null window search,
+     * reduction plies shallower, proves it no better than alpha. Otherwise it is searched again
+     * at full depth, then with the full window.
+     */
+    private int searchLate(IEscampeBoard board, int depth, int ply, int alpha, int beta, int reduction) {
+        int score = -negamax(board, depth - reduction, ply, -alpha - 1, -alpha);
+        if (reduction > 0 && score > alpha) score = -negamax(board, depth, ply, -alpha - 1, -alpha);
+        if (score > alpha && score < beta) score = -negamax(board, depth, ply, -beta, -alpha);
+        return score;
+    }
+
+    private static int[][] reductions(double base, double divisor) {
+        int[][] table = new int[64][MoveList.CAPACITY];
+        for (int depth = 1; depth < table.length; depth++) {
+            for (int i = 1; i < MoveList.CAPACITY; i++) {
+                table[depth][i] = Math.max(0, (int) (base + Math.log(depth) * Math.log(i) / divisor));
+            }
+        }
+        return table;
+    }
+
+    private static int[] margins(String list) {
+        if (list.trim().isEmpty()) return new int[0];
+        String[] parts = list.split(",");
+        int[] margins = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) margins[i] = Integer.parseInt(parts[i].trim());
+        return margins;
+    }
+
+    /**
+     * Quiescence at the horizon: the search goes on until the position is quiet. If the side to
+     * move can take the enemy unicorn, it wins. If its own unicorn is attacked, it must answer:
+     * every move is searched, recursively, so that an evasion running into another threat is
+     * followed as well, and a move leaving the unicorn attacked loses at the next ply. When the
+     * unicorn is not attacked, the static evaluation stands (stand-pat), cutting against beta.
+     * budget is the number of plies still allowed; once spent, the evaluation stands as well.
+     * @return the value of board for the side to move
+     */
+    private int quiesce(IEscampeBoard board, int alpha, int beta, int ply, int budget) {
+        if (board.gameOver()) return gameOverValue(board, ply);
+
+        int sideToMove = board.getSideToMove();
+        int enemyUnicorn = board.getUnicornSquare(-sideToMove);
+        if (board.isAttacked(enemyUnicorn, sideToMove, board.getLastMoveLisere())) return WIN - (ply + 1);
+
+        if (budget == 0 || ply >= IEscampeBoard.MAX_PLY - 1 || !isThreatened(board, sideToMove)) {
+            // stand-pat: quiet, nothing forces the side to move to act
+            return staticValue(board, sideToMove);
+        }
+
+        MoveList moves = moveStack[ply];
+        generateMoves(board, sideToMove, moves); // a blocked player passes ("E")
+        int bestValue = -INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            if ((++metrics.nodes & 1023) == 0 && (stopRequested || System.currentTimeMillis() >= deadline)) stopped = true;
+            if (stopped) return 0;
+            metrics.quiescenceNodes++;
+
+            board.makeMove(moves.get(i), sideToMove);
+            int score = -quiesce(board, -beta, -alpha, ply + 1, budget - 1);
+            board.unmakeMove();
+            if (score > bestValue) bestValue = score;
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) break;
+        }
+        return bestValue;
+    }
+
+    /**
+     * evaluate, seen from side and kept out of the capture values: the captures evaluate sees
+     * are not checked against the lisere actually imposed on each side
+     */
+    private int staticValue(IEscampeBoard board, int side) {
+        int value = Math.min(Math.max(timedEvaluation(board), -WIN_BOUND + 1), WIN_BOUND - 1);
+        return side == color ? value : -value;
+    }
+
+    /** Perft.generate, timed one call out of SearchMetrics.TIMING_SAMPLE */
+    private void generateMoves(IEscampeBoard board, int side, MoveList moves) {
+        if ((metrics.moveGenerations++ & SearchMetrics.TIMING_MASK) != 0) {
+            Perft.generate(board, side, moves);
+            return;
+        }
+        long start = System.nanoTime();
+        Perft.generate(board, side, moves);
+        metrics.moveGenerationNanos += (System.nanoTime() - start) * SearchMetrics.TIMING_SAMPLE;
+    }
+
+    /** cachedEvaluation, timed one call out of SearchMetrics.TIMING_SAMPLE */
+    private int timedEvaluation(IEscampeBoard board) {
+        if ((metrics.evaluations++ & SearchMetrics.TIMING_MASK) != 0) return cachedEvaluation(board);
+        long start = System.nanoTime();
+        int value = cachedEvaluation(board);
+        metrics.evaluationNanos += (System.nanoTime() - start) * SearchMetrics.TIMING_SAMPLE;
+        return value;
+    }
+
+    /** evaluate(board, color), through the evaluation cache if there is one */
+    private int cachedEvaluation(IEscampeBoard board) {
+        if (evalCache == null) return evaluate(board, color);
+        int value = evalCache.probe(board.getHash(), color);
+        if (value == EvalCache.MISS) {
+            value = evaluate(board, color);
+            evalCache.store(board.getHash(), color, value);
+        }
+        return value;
+    }
+
+    /** value of a finished game at ply for the side to move, whose unicorn was just taken */
+    private int gameOverValue(IEscampeBoard board, int ply) {
+        if (board.getUnicornSquare(board.getSideToMove()) < 0) return LOSS + ply;
+        return staticValue(board, board.getSideToMove());
+    }
+
+    /** whether value is that of a unicorn capture, for either side */
+    static boolean isCapture(int value) {
+        return Math.abs(value) >= WIN_BOUND;
+    }
+
+    // The table stores capture values counted from the stored node rather than from the root,
+    // so that they stay right when the node is reached at another ply
+    private static int toTable(int value, int ply) {
+        if (value >= WIN_BOUND) return value + ply;
+        if (value <= -WIN_BOUND) return value - ply;
+        return value;
+    }
+
+    private static int fromTable(int value, int ply) {
+        if (value >= WIN_BOUND) return value - ply;
+        if (value <= -WIN_BOUND) return value + ply;
+        return value;
+    }
+
+    /**
+     * whether player's unicorn is attacked and cannot itself move away, the lisere imposed on
+     * player not being the one of its square: only a paladin move can answer the threat
+     */
+    private static boolean isPinnedThreat(IEscampeBoard board, int player) {
+        int unicorn = board.getUnicornSquare(player);
+        int lisere = board.getLastMoveLisere();
+        return unicorn >= 0 && lisere != -1 && board.getLiseres()[unicorn / 6][unicorn % 6] != lisere
+                && board.isAttacked(unicorn, -player, -1);
+    }
+
+    /** whether an enemy paladin reaches player's unicorn, whatever the lisere imposed next */
+    private static boolean isThreatened(IEscampeBoard board, int player) {
+        int unicorn = board.getUnicornSquare(player);
+        return unicorn >= 0 && board.isAttacked(unicorn, -player, -1);
+    }
+
+    /**
+     * Scores the moves of ply for ordering: the TT move first, then captures of the enemy
+     * unicorn, then the two killers of the ply, then the other moves by history.
+     */
+    private void orderMoves(IEscampeBoard board, MoveList moves, int ply, int ttMove, int player) {
+        int[] scores = orderScores[ply];
+        int enemyUnicorn = board.getUnicornSquare(-player);
+        int[] hist = history[board.getLastMoveLisere() + 1];
+        int[] killer = killers[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == ttMove) scores[i] = SCORE_TT_MOVE;
+            else if (!Move.isRegular(move)) scores[i] = 0;
+            else if (Move.to(move) == enemyUnicorn) scores[i] = SCORE_CAPTURE;
+            else if (move == killer[0]) scores[i] = SCORE_KILLER;
+            else if (move == killer[1]) scores[i] = SCORE_KILLER - 1;
+            else scores[i] = hist[move & 0xFFF];
+        }
+    }
+
+    /** moves the best scored of the remaining moves of ply to index i (selection sort, one step per move tried) */
+    private void pickNext(MoveList moves, int ply, int i) {
+        int[] scores = orderScores[ply];
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int move = moves.get(i);
+            moves.set(i, moves.get(best));
+            moves.set(best, move);
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+        }
+    }
+
+    /** the move at index i of ply caused a beta cutoff: update statistics, killers and history */
+    private void recordCutoff(int move, int i, int ply, int depth, int lisere) {
+        metrics.cutoffs++;
+        metrics.cutoffsAtMove[Math.min(i, SearchMetrics.CUTOFF_INDEXES - 1)]++;
+        if (!Move.isRegular(move) || orderScores[ply][i] == SCORE_CAPTURE) return;
+
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int[] h = history[lisere + 1];
+        h[move & 0xFFF] = Math.min(h[move & 0xFFF] + depth * depth, SCORE_KILLER - 2);
+    }
+
+    int evaluate(IEscampeBoard board, int player) {
+        int score = 0;
+        int enemy = -player;
+
+        // Immediate win/loss
+        if (canCaptureUnicorn(board, player)) return Integer.MAX_VALUE - 1;
+        if (canCaptureUnicorn(board, enemy)) return Integer.MIN_VALUE + 1;
+
+        // Locate pieces
+        int myUnicorn = board.getUnicornSquare(player);
+        int enemyUnicorn = board.getUnicornSquare(enemy);
+        int[] myPaladins = evalPaladins[0];
+        int[] enemyPaladins = evalPaladins[1];
+        int myPaladinCount = findPaladins(board, player, myPaladins);
+        int enemyPaladinCount = findPaladins(board, enemy, enemyPaladins);
+
+        // One distance map per unicorn: every distance term below reads from them
+        int[] toEnemyUnicorn = unicornDistances[0];
+        int[] toMyUnicorn = unicornDistances[1];
+        distanceMap(board, enemyUnicorn, toEnemyUnicorn);
+        distanceMap(board, myUnicorn, toMyUnicorn);
+
+        // Mobility differential: compare accessible moves count
+        int myMobility = board.countMoves(player, -1);
+        int enemyMobility = board.countMoves(enemy, -1);
+        score += (myMobility - enemyMobility) * 5;
+
+        // Threat distance: sum of distances of paladins to focus on unicorn, and paladin
+        // proximity to enemy unicorn
+        int myThreatSum = 0;
+        for (int i = 0; i < myPaladinCount; i++) {
+            int dist = distance(myPaladins[i], enemyUnicorn, toEnemyUnicorn);
+            myThreatSum += dist;
+            score += 50 / (dist + 1);
+        }
+        // Same for the enemy paladins, with the safety of allied unicorn: min distance from any
+        // enemy paladin
+        int enemyThreatSum = 0;
+        int minDistEnemyToMyUni = Integer.MAX_VALUE;
+        for (int i = 0; i < enemyPaladinCount; i++) {
+            int dist = distance(enemyPaladins[i], myUnicorn, toMyUnicorn);
+            enemyThreatSum += dist;
+            minDistEnemyToMyUni = Math.min(minDistEnemyToMyUni, dist);
+            score -= 30 / (dist + 1);
+        }
+        // reward smaller myThreatSum, penalize smaller enemyThreatSum
+        score += (enemyThreatSum - myThreatSum) * 2;
+
+        // Piece safety zones: discourage unicorn near high-value border if enemy paladin close
+        int[][] borders = board.getLiseres();
+        int myUnicornValue = borders[myUnicorn / 6][myUnicorn % 6];
+        // if enemy is close (<3), heavy penalty on high-value border
+        if (minDistEnemyToMyUni < 3) {
+            score -= myUnicornValue * 8;
+        }
+
+        // Control of strategic borders
+        for (int i = 0; i < myPaladinCount; i++) {
+            score += borders[myPaladins[i] / 6][myPaladins[i] % 6] * 3;
+        }
+        // Future mobility
+        int nextBorder = board.getLastMoveLisere();
+        score += countAccessibleTiles(board, player, nextBorder) * 2;
+
+        return score;
+    }
+
+    private boolean canCaptureUnicorn(IEscampeBoard board, int player) {
+        int enemyUnicornSq = board.getUnicornSquare(-player);
+        if (enemyUnicornSq < 0) return true; // Unicorn already captured
+
+        return board.isAttacked(enemyUnicornSq, player, board.getLastMoveLisere());
+    }
+
+    /** fills squares with the squares of player's paladins and returns their number */
+    private int findPaladins(IEscampeBoard board, int player, int[] squares) {
+        char target = player == Couleur.NOIR ? 'n' : 'b';
+        int count = 0;
+        for (int sq = 0; sq < 36; sq++) {
+            if (board.getBoardCell(sq / 6, sq % 6) == target) squares[count++] = sq;
+        }
+        return count;
+    }
+
+    /**
+     * map[sq]: length of the shortest path from sq to target, one orthogonal step at a time
+     * through empty squares (target included, as a piece moving there needs it empty), or
+     * Integer.MAX_VALUE if there is none. One BFS from target over a fixed-size queue.
+     */
+    private void distanceMap(IEscampeBoard board, int target, int[] map) {
+        Arrays.fill(map, Integer.MAX_VALUE);
+        if (!board.isNextPosValid(board.getBoardCell(target / 6, target % 6))) return;
+
+        map[target] = 0;
+        bfsQueue[0] = target;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int sq = bfsQueue[head++];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbour(sq, dir);
+                if (next < 0 || map[next] != Integer.MAX_VALUE
+                        || !board.isNextPosValid(board.getBoardCell(next / 6, next % 6))) continue;
+                map[next] = map[sq] + 1;
+                bfsQueue[tail++] = next;
+            }
+        }
+    }
+
+    /** distance of the piece on from to target: a first step to an empty neighbour, then the map of target */
+    private static int distance(int from, int target, int[] map) {
+        if (from == target) return 0;
+        int best = Integer.MAX_VALUE;
+        for (int dir = 0; dir < 4; dir++) {
+            int next = neighbour(from, dir);
+            if (next >= 0 && map[next] != Integer.MAX_VALUE) best = Math.min(best, map[next] + 1);
+        }
+        return best;
+    }
+
+    /** the square next to sq in direction dir (up, down, left, right), -1 off the board */
+    private static int neighbour(int sq, int dir) {
+        switch (dir) {
+            case 0:  return sq >= 6 ? sq - 6 : -1;
+            case 1:  return sq < 30 ? sq + 6 : -1;
+            case 2:  return sq % 6 > 0 ? sq - 1 : -1;
+            default: return sq % 6 < 5 ? sq + 1 : -1;
+        }
+    }
+
+    /** moves ending on a square of the imposed lisere, each worth the lisere (none when free) */
+    private int countAccessibleTiles(IEscampeBoard board, int player, int nextLisere) {
+        return nextLisere == -1 ? 0 : board.countMoves(player, nextLisere) * nextLisere;
+    }
+}
@@ -0,0 +1,74 @@
+package escampe;
+
+/**
+ * Time-to-depth of the Lazy SMP search for several thread counts: for each count, a fresh
+ * transposition table and an iterative deepening from depth 1 to the given depth on the same
+ * position. Prints the time, the nodes searched by all threads, and the speedup over one thread.
+ *
+ * Exemple : java -cp bin escampe.SmpBench plateau.txt blanc -1 8 1,2,4,8
+ */
+public class SmpBench {
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("SmpBench Usage: FichierPlateau noir|blanc Liseré(-1 si libre) Profondeur"
+                    + " [threads, défaut 1,2,4,8] [--board=bitboard|reference]");
+            System.exit(1);
+        }
+
+        int side = Couleur.fromString(args[1]);
+        int lisere = Integer.parseInt(args[2]);
+        int depth = Integer.parseInt(args[3]);
+        String threadList = "1,2,4,8";
+        String engine = "bitboard";
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].startsWith("--board=")) engine = args[i].substring(8);
+            else threadList = args[i];
+        }
+
+        IEscampeBoard board = JoueurSuperFort.newBoard(engine);
+        board.setFromFile(args[0]);
+        board.setSideToMove(side);
+        board.setLastMoveLisere(lisere);
+        board.printBoard();
+
+        // Warm-up so that the first measured thread count does not pay for the JIT
+        timeToDepth(board, side, Math.max(1, depth - 1), 1);
+
+        long baseline = 0;
+        for (String t : threadList.split(",")) {
+            int threads = Integer.parseInt(t.trim());
+            long[] result = timeToDepth(board, side, depth, threads);
+            if (baseline == 0) baseline = result[0];
+            System.out.printf("%d threads : profondeur %d en %d ms, %d noeuds (%.0f noeuds/s), accélération x%.2f%n",
+                    threads, depth, result[0], result[1], result[1] * 1000.0 / result[0], (double) baseline / result[0]);
+        }
+    }
+
+    /** @return {elapsed ms, total nodes} of an iterative deepening to depth with the given thread count */
+    static long[] timeToDepth(IEscampeBoard root, int side, int depth, int threads) {
+        TranspositionTable tt = new TranspositionTable(Integer.getInteger("escampe.ttMegabytes", 64));
+        EvalCache evalCache = EvalCache.create(Integer.getInteger("escampe.evalCacheMegabytes", 8));
+        Searcher searcher = new Searcher(side, tt, evalCache);
+        LazySmp smp = new LazySmp(side, tt, evalCache, threads - 1);
+        IEscampeBoard board = root.clone();
+        MoveList moves = searcher.moves(0);
+        Perft.generate(board, side, moves);
+
+        long start = System.currentTimeMillis();
+        searcher.setDeadline(Long.MAX_VALUE);
+        try {
+            smp.start(board, moves, depth, Long.MAX_VALUE);
+            int value = Searcher.NO_VALUE;
+            for (int d = 1; d <= depth; d++) {
+                value = searcher.searchIteration(board, moves, d, value);
+            }
+        } finally {
+            // each call has its own helper threads: released here, or one pool is left per call
+            smp.stop();
+            smp.shutdown();
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        return new long[] {elapsed, searcher.nodes() + smp.nodes()};
+    }
+}
@@ -4,5 +4,5 @@ public class TTEntry {
     int depth;       // search depth when this was stored
     int value;       // the minimax value
     int flag;        // 0 = exact, -1 = alpha-bound, +1 = beta-bound
-    String bestMove; // PV move for move ordering
+    int bestMove;    // PV move for move ordering, coded by Move (Move.NONE if unknown)
 }
@@ -0,0 +1,73 @@
+package escampe;
+
+/**
+ * Splits our game clock (5 minutes per player for the whole game) between moves.
+ *
+ * Each move gets a soft limit, the time we aim to spend, computed from the remaining clock and
+ * an estimate of the moves still to play, and a hard limit after which the search is aborted.
+ * The iterative deepening loop asks {@link #canStartIteration} before each new depth: the next
+ * iteration usually costs several times the previous ones, so it is not started past half of
+ * the soft limit, and even earlier once the best move has stopped changing.
+ */
+class TimeManager {
+    // Moves we expect to play in a game, and the fewest we always keep time for
+    private static final int EXPECTED_MOVES = 40;
+    private static final int MIN_MOVES_TO_GO = 10;
+    // The hard limit is at most this many soft limits, and never more than a third of the clock
+    private static final int HARD_FACTOR = 4;
+    // Iterations with the same best move after which we stop early
+    private static final int STABLE_ITERATIONS = 3;
+
+    private long remaining;
+    private final long margin;
+
+    private long moveStart;
+    private long softLimit;
+    private long hardLimit;
+
+    /**
+     * @param gameMillis our clock for the whole game
+     * @param marginMillis kept aside for network and server latency
+     */
+    TimeManager(long gameMillis, long marginMillis) {
+        this.remaining = gameMillis;
+        this.margin = marginMillis;
+    }
+
+    /** starts the clock for our moveNumber-th move (0 for the placement) */
+    void startMove(int moveNumber) {
+        moveStart = System.currentTimeMillis();
+        long available = Math.max(0, remaining - margin);
+        int movesToGo = Math.max(MIN_MOVES_TO_GO, EXPECTED_MOVES - moveNumber);
+        softLimit = available / movesToGo;
+        hardLimit = Math.min(softLimit * HARD_FACTOR, available / 3);
+    }
+
+    /** stops the clock and charges the time spent on the move */
+    void endMove() {
+        remaining -= System.currentTimeMillis() - moveStart;
+    }
+
+    long elapsed() {
+        return System.currentTimeMillis() - moveStart;
+    }
+
+    /** whether another iteration is worth starting, given for how many iterations the best move has not changed */
+    boolean canStartIteration(int stableIterations) {
+        long limit = stableIterations >= STABLE_ITERATIONS ? softLimit / 4 : softLimit / 2;
+        return elapsed() < limit;
+    }
+
+    /** System.currentTimeMillis() at which the current search must return */
+    long hardDeadline() {
+        return moveStart + hardLimit;
+    }
+
+    long softLimit() {
+        return softLimit;
+    }
+
+    long remaining() {
+        return remaining;
+    }
+}
@@ -0,0 +1,178 @@
+package escampe;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transposition table shared by all search threads, without locks, with a fixed size.
+ *
+ * Each entry is two longs: the data (value, depth, flag, move, generation) and the key XOR the
+ * data. Two threads writing the same entry at once can leave the halves of different stores;
+ * the XOR then no longer gives back the key, and the probe simply misses. No object is
+ * allocated per store and nothing is boxed.
+ *
+ * Entries are grouped in buckets of 4 (64 bytes, one cache line); a key may be stored in any
+ * entry of its bucket. When the bucket is full, the entry replaced is the one with the lowest
+ * depth, each search generation of age counting as 8 plies less, so that deep entries survive
+ * a few moves and then make room.
+ */
+class TranspositionTable {
+    // Data layout: value on bits 0-31, depth on 32-39, flag + 2 on 40-41 (never 0, so the data
+    // of a stored entry is never 0 like an empty slot), move on 42-54, generation on 55-60
+    private static final int DEPTH_SHIFT = 32;
+    private static final int FLAG_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int GENERATION_SHIFT = 55;
+    private static final int GENERATION_MASK = 63;
+    private static final int MOVE_PASS = 1 << 12;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int BYTES_PER_ENTRY = 16;
+    // Plies of depth worth one generation of age, when choosing the entry to replace
+    private static final int AGE_WEIGHT = 8;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    // Statistics since the last newSearch(); updated by all threads
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /** @param megabytes size of the table, rounded down to a power of two number of buckets */
+    TranspositionTable(int megabytes) {
+        long buckets = Math.max(1, (long) megabytes * 1024 * 1024 / (BYTES_PER_ENTRY * BUCKET_SIZE));
+        int log2Buckets = Math.min(63 - Long.numberOfLeadingZeros(buckets), 26);
+        table = new long[(2 * BUCKET_SIZE) << log2Buckets];
+        bucketMask = (1 << log2Buckets) - 1;
+    }
+
+    /** size of the table in megabytes */
+    int megabytes() {
+        return (int) ((long) table.length * 8 / (1024 * 1024));
+    }
+
+    /**
+     * To be called before each search (each of our moves): entries stored from now on are of a
+     * new generation, older ones are replaced first. Also resets the statistics.
+     */
+    void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    /**
+     * @param out receives depth, value, flag and bestMove on a hit
+     * @return whether an entry for key was found
+     */
+    boolean probe(long key, TTEntry out) {
+        probes.increment();
+        int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + 2 * BUCKET_SIZE; i += 2) {
+            long data = table[i + 1];
+            if (data == 0 || (table[i] ^ data) != key) continue;
+
+            hits.increment();
+            out.value = (int) data;
+            out.depth = (int) (data >>> DEPTH_SHIFT) & 0xFF;
+            out.flag = (int) (data >>> FLAG_SHIFT & 3) - 2;
+            out.bestMove = unpackMove((int) (data >>> MOVE_SHIFT) & 0x1FFF);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param flag 0 = exact, -1 = alpha-bound, +1 = beta-bound
+     * @param bestMove regular move or pass; Move.NONE (and placements) are stored as no move,
+     * in which case the move already stored for key, if any, is kept
+     */
+    void store(long key, int depth, int value, int flag, int bestMove) {
+        stores.increment();
+        int bucket = bucketIndex(key);
+        int move = packMove(bestMove);
+        int gen = generation;
+
+        // Same key, else an empty entry, else the least valuable entry of the bucket
+        int target = bucket;
+        int lowestWorth = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + 2 * BUCKET_SIZE; i += 2) {
+            long data = table[i + 1];
+            if (data == 0) {
+                if (lowestWorth > Integer.MIN_VALUE) {
+                    target = i;
+                    lowestWorth = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((table[i] ^ data) == key) {
+                if (move == 0) move = (int) (data >>> MOVE_SHIFT) & 0x1FFF;
+                target = i;
+                break;
+            }
+            int age = (gen - (int) (data >>> GENERATION_SHIFT)) & GENERATION_MASK;
+            int worth = ((int) (data >>> DEPTH_SHIFT) & 0xFF) - AGE_WEIGHT * age;
+            if (worth < lowestWorth) {
+                target = i;
+                lowestWorth = worth;
+            }
+        }
+        long replaced = table[target + 1];
+        if (replaced != 0 && (table[target] ^ replaced) != key) collisions.increment();
+
+        long data = (value & 0xFFFFFFFFL)
+                | (long) Math.min(depth, 0xFF) << DEPTH_SHIFT
+                | (long) (flag + 2) << FLAG_SHIFT
+                | (long) move << MOVE_SHIFT
+                | (long) gen << GENERATION_SHIFT;
+        table[target] = key ^ data;
+        table[target + 1] = data;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    /** per mille of a sample of entries stored during the current generation */
+    int fillPermille() {
+        int sample = Math.min(1000, table.length / 2);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[2 * i + 1];
+            if (data != 0 && (int) (data >>> GENERATION_SHIFT) == generation) used++;
+        }
+        return used * 1000 / sample;
+    }
+
+    /** share of the probes that found their key since the last newSearch() */
+    double hitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0.0 : (double) hits.sum() / p;
+    }
+
+    /** hit rate, fill rate and collisions since the last newSearch(), for the logs */
+    String stats() {
+        long p = probes.sum();
+        return String.format("TT %d Mo : %d sondages, %.1f%% trouvés, remplissage %d pour mille, "
+                        + "%d collisions sur %d écritures",
+                megabytes(), p, p == 0 ? 0.0 : 100.0 * hits.sum() / p, fillPermille(), collisions.sum(), stores.sum());
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) key & bucketMask) * 2 * BUCKET_SIZE;
+    }
+
+    private static int packMove(int move) {
+        if (Move.isPass(move)) return MOVE_PASS;
+        return Move.isRegular(move) ? move : 0;
+    }
+
+    private static int unpackMove(int packed) {
+        return packed == MOVE_PASS ? Move.PASS : packed;
+    }
+}
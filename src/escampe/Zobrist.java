@@ -0,0 +1,73 @@
+package escampe;
+
+import java.util.Random;
+
+/**
+ * Clés de Zobrist partagées par les plateaux. Le hash d'une position est le XOR des clés
+ * pièce × case, de SIDE si c'est à blanc de jouer, et de la clé du liseré imposé.
+ */
+final class Zobrist {
+    // [index joueur][case], index 0 = noir, 1 = blanc
+    static final long[][] PALADIN = new long[2][36];
+    static final long[][] UNICORN = new long[2][36];
+    static final long SIDE;
+    // Index 0 = pas de contrainte (-1), puis liserés 1, 2, 3
+    static final long[] LISERE = new long[4];
+
+    /** vérifie le hash incrémental contre un recalcul complet après chaque coup */
+    static final boolean DEBUG = Boolean.getBoolean("escampe.debugHash");
+
+    static {
+        // Graine fixe : les hashs restent les mêmes d'une exécution à l'autre
+        Random rnd = new Random(123456);
+        for (int side = 0; side < 2; side++) {
+            for (int sq = 0; sq < 36; sq++) {
+                PALADIN[side][sq] = rnd.nextLong();
+                UNICORN[side][sq] = rnd.nextLong();
+            }
+        }
+        SIDE = rnd.nextLong();
+        for (int i = 0; i < LISERE.length; i++) {
+            LISERE[i] = rnd.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /** clé de la pièce c ('n', 'b', 'N', 'B') sur la case sq, 0 pour une case vide */
+    static long piece(char c, int sq) {
+        switch (c) {
+            case 'n': return PALADIN[0][sq];
+            case 'b': return PALADIN[1][sq];
+            case 'N': return UNICORN[0][sq];
+            case 'B': return UNICORN[1][sq];
+            default:  return 0L;
+        }
+    }
+
+    static long lisere(int lastMoveLisere) {
+        return LISERE[lastMoveLisere == -1 ? 0 : lastMoveLisere];
+    }
+
+    static long side(int sideToMove) {
+        return sideToMove == Couleur.BLANC ? SIDE : 0L;
+    }
+
+    /** hash complet d'un plateau, recalculé case par case */
+    static long compute(IEscampeBoard board) {
+        long h = 0L;
+        for (int sq = 0; sq < 36; sq++) {
+            h ^= piece(board.getBoardCell(sq / 6, sq % 6), sq);
+        }
+        return h ^ side(board.getSideToMove()) ^ lisere(board.getLastMoveLisere());
+    }
+
+    static void check(IEscampeBoard board) {
+        long expected = compute(board);
+        if (board.getHash() != expected) {
+            throw new IllegalStateException("Hash incrémental " + Long.toHexString(board.getHash())
+                    + " différent du hash recalculé " + Long.toHexString(expected));
+        }
+    }
+}